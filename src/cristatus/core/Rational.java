@@ -26,6 +26,7 @@
 package cristatus.core;
 
 import cristatus.core.utils.BigMath;
+import cristatus.core.utils.BinaryContext;
 import cristatus.core.utils.Helper;
 
 import java.math.BigDecimal;
@@ -46,6 +47,12 @@ import java.util.Objects;
  * Denominator, therefore, it is capable of supporting arbitrary-precision
  * arithmetic.
  * <p>
+ * Small values, whose parts fit comfortably in a {@code long}, are stored
+ * in a compact form and all the common operations on them are carried out
+ * with primitive arithmetic. A Rational is inflated to the BigInteger form
+ * only when a result no longer fits. This is completely transparent to the
+ * user: both forms behave identically.
+ * <p>
  * Rational has no public Constructors, but the overloaded
  * <code>valueOf()</code> methods provide the interface for creating
  * Rational instances. Because the parameters are defined as {@link Number},
@@ -102,37 +109,180 @@ public class Rational extends Real implements Comparable<Rational> {
      */
     public static final Rational TENTH = new Rational(1, 10);
 
+    private static final BigInteger FIVE = BigInteger.valueOf(5);
+
     private static final MathContext DOUBLE_CONTEXT
             = new MathContext(64, RoundingMode.HALF_UP);
 
+    // The magnitude (exclusive) up to which the parts are kept as longs.
+    // The headroom allows negation, and the sum of two products of compact
+    // parts, without any risk of overflow.
+    private static final long COMPACT_LIMIT = 1L << 62;
+
     // Class data - the numerator and the denominator
 
+    // The compact form, valid only when num and den are null
+    private final long compactNum;
+    private final long compactDen;
+
+    // The inflated form, null when the compact form is in use
     private final BigInteger num;
     private final BigInteger den;
 
     // Constructors - use verified arguments. Never make public
 
     /**
-     * Helps to clean up the constant declarations.
+     * Creates a Rational in the compact form. Both arguments must lie
+     * within the compact range. It reduces the arguments to their lowest
+     * terms.
      *
      * @param num The long integer representing the numerator.
      * @param den The long integer representing the denominator.
      */
     private Rational(final long num, final long den) {
-        this(BigInteger.valueOf(num), BigInteger.valueOf(den));
+        long n = den < 0 ? -num : num;
+        long d = den < 0 ? -den : den;
+        long gcd = gcd(n, d);
+        this.compactNum = n / gcd;
+        this.compactDen = d / gcd;
+        this.num = null;
+        this.den = null;
     }
 
     /**
      * The main constructor that is used everywhere else. It reduces the
-     * arguments to their lowest terms.
+     * arguments to their lowest terms, and chooses the compact form if the
+     * reduced parts are small enough.
      *
      * @param num The {@link BigInteger} representing the numerator.
      * @param den The {@link BigInteger} representing the denominator.
      */
     private Rational(final BigInteger num, final BigInteger den) {
-        BigInteger gcd = num.gcd(den);
-        this.num = num.divide(gcd);
-        this.den = den.divide(gcd);
+        BigInteger n = num;
+        BigInteger d = den;
+        if (d.signum() < 0) {
+            n = n.negate();
+            d = d.negate();
+        }
+        if (!fitsCompact(n) || !fitsCompact(d)) {
+            BigInteger gcd = n.gcd(d);
+            n = n.divide(gcd);
+            d = d.divide(gcd);
+        }
+        if (fitsCompact(n) && fitsCompact(d)) {
+            long ln = n.longValue();
+            long ld = d.longValue();
+            long gcd = gcd(ln, ld);
+            this.compactNum = ln / gcd;
+            this.compactDen = ld / gcd;
+            this.num = null;
+            this.den = null;
+        } else {
+            this.compactNum = 0;
+            this.compactDen = 0;
+            this.num = n;
+            this.den = d;
+        }
+    }
+
+    /**
+     * Simply stores the given parts, without any reduction or checks.
+     *
+     * @param compactNum The numerator in the compact form.
+     * @param compactDen The denominator in the compact form.
+     * @param num        The numerator in the inflated form, or null.
+     * @param den        The denominator in the inflated form, or null.
+     */
+    private Rational(final long compactNum, final long compactDen,
+                     final BigInteger num, final BigInteger den) {
+        this.compactNum = compactNum;
+        this.compactDen = compactDen;
+        this.num = num;
+        this.den = den;
+    }
+
+    /**
+     * Returns a Rational for parts that are already known to be in their
+     * lowest terms, with a positive denominator. No GCD is computed.
+     *
+     * @param num The reduced numerator.
+     * @param den The reduced, positive denominator.
+     * @return The Rational with the given parts.
+     */
+    private static Rational fromReduced(final BigInteger num,
+                                        final BigInteger den) {
+        if (fitsCompact(num) && fitsCompact(den))
+            return new Rational(num.longValue(), den.longValue(), null, null);
+        return new Rational(0, 0, num, den);
+    }
+
+    /**
+     * Returns a Rational for the given long parts, choosing the compact or
+     * the inflated form as required.
+     *
+     * @param num The numerator.
+     * @param den The non-zero denominator.
+     * @return The reduced Rational.
+     */
+    private static Rational compact(final long num, final long den) {
+        if (fitsCompact(num) && fitsCompact(den))
+            return new Rational(num, den);
+        return new Rational(BigInteger.valueOf(num), BigInteger.valueOf(den));
+    }
+
+    // Helpers for the compact form
+
+    private static boolean fitsCompact(final long value) {
+        return value > -COMPACT_LIMIT && value < COMPACT_LIMIT;
+    }
+
+    private static boolean fitsCompact(final BigInteger value) {
+        // Must agree with the long check, or the form would not be canonical
+        return value.bitLength() < Long.SIZE && fitsCompact(value.longValue());
+    }
+
+    /**
+     * Returns {@code true} if the product of the two compact values is
+     * guaranteed to stay within the compact range.
+     *
+     * @param a The first factor.
+     * @param b The second factor.
+     * @return {@code true} if the product fits.
+     */
+    private static boolean productFits(final long a, final long b) {
+        return Long.numberOfLeadingZeros(Math.abs(a))
+                + Long.numberOfLeadingZeros(Math.abs(b)) > Long.SIZE + 1;
+    }
+
+    /**
+     * Binary (Stein's) GCD for the compact form. The result is always
+     * positive as long as at least one of the arguments is non-zero.
+     *
+     * @param a The first value.
+     * @param b The second value.
+     * @return The greatest common divisor of the absolute values.
+     */
+    private static long gcd(long a, long b) {
+        a = Math.abs(a);
+        b = Math.abs(b);
+        if (a == 0) return b;
+        if (b == 0) return a;
+        int shift = Long.numberOfTrailingZeros(a | b);
+        a >>= Long.numberOfTrailingZeros(a);
+        do {
+            b >>= Long.numberOfTrailingZeros(b);
+            if (a > b) {
+                long t = b;
+                b = a;
+                a = t;
+            }
+            b -= a;
+        } while (b != 0);
+        return a << shift;
+    }
+
+    private boolean isCompact() {
+        return num == null;
     }
 
     // public getters
@@ -143,7 +293,7 @@ public class Rational extends Real implements Comparable<Rational> {
      * @return The numerator of this Rational.
      */
     public BigInteger getNumerator() {
-        return num;
+        return isCompact() ? BigInteger.valueOf(compactNum) : num;
     }
 
     /**
@@ -152,7 +302,7 @@ public class Rational extends Real implements Comparable<Rational> {
      * @return The denominator of this Rational.
      */
     public BigInteger getDenominator() {
-        return den;
+        return isCompact() ? BigInteger.valueOf(compactDen) : den;
     }
 
     /**
@@ -162,7 +312,7 @@ public class Rational extends Real implements Comparable<Rational> {
      * positive.
      */
     public int signum() {
-        return num.signum();
+        return isCompact() ? Long.signum(compactNum) : num.signum();
     }
 
     // Factory methods - always validate arguments
@@ -188,6 +338,10 @@ public class Rational extends Real implements Comparable<Rational> {
             throw new IllegalArgumentException("Null argument");
         if (number instanceof Rational)
             return (Rational) number;
+        // Primitive integers go straight to the compact form
+        if (number instanceof Long || number instanceof Integer
+                || number instanceof Short || number instanceof Byte)
+            return compact(number.longValue(), 1);
         // Approximation isn't any faster than using String...
         if (number instanceof Double || number instanceof Float)
             return rationalFromBigDecimal(BigDecimal.valueOf(number.doubleValue()));
@@ -207,14 +361,28 @@ public class Rational extends Real implements Comparable<Rational> {
      * @return A Rational encapsulating the {@link BigDecimal}.
      */
     private static Rational rationalFromBigDecimal(BigDecimal decimal) {
+        if (decimal.signum() == 0) return ZERO;
+        decimal = decimal.stripTrailingZeros();
         BigInteger num = decimal.unscaledValue();
-        BigInteger den = BigInteger.ONE;
         int scale = decimal.scale();
-        if (scale < 0)
-            num = num.multiply(BigInteger.TEN.pow(-scale));
-        else
-            den = den.multiply(BigInteger.TEN.pow(scale));
-        return getCorrectedRational(num, den);
+        if (scale <= 0)
+            return fromReduced(num.multiply(BigInteger.TEN.pow(-scale)),
+                    BigInteger.ONE);
+        // The numerator is no longer divisible by 10, so it can share either
+        // twos or fives with the denominator, but not both. There is no
+        // need for a (slow, for large decimals) general GCD.
+        int twos = Math.min(num.getLowestSetBit(), scale);
+        if (twos > 0)
+            return fromReduced(num.shiftRight(twos),
+                    BigInteger.TEN.pow(scale).shiftRight(twos));
+        int fives = 0;
+        BigInteger[] quotient;
+        while (fives < scale && (quotient = num.divideAndRemainder(FIVE))[1]
+                .signum() == 0) {
+            num = quotient[0];
+            fives++;
+        }
+        return fromReduced(num, FIVE.pow(scale - fives).shiftLeft(scale));
     }
 
     /**
@@ -296,6 +464,14 @@ public class Rational extends Real implements Comparable<Rational> {
      */
     private static Rational getRationalFromIntegers(Number num,
                                                     Number den) {
+        // Two primitives need not touch BigInteger at all
+        if (!(num instanceof BigInteger) && !(den instanceof BigInteger)) {
+            long d = den.longValue();
+            if (d == 0)
+                throw new IllegalArgumentException("Zero denominator.");
+            long n = num.longValue();
+            return n == 0 ? ZERO : compact(n, d);
+        }
         // Try to skip toString altogether
         BigInteger n = num instanceof BigInteger
                 ? (BigInteger) num
@@ -358,6 +534,10 @@ public class Rational extends Real implements Comparable<Rational> {
      */
     @Override
     public BigDecimal toBigDecimal(MathContext context) {
+        if (isCompact())
+            return BigDecimal.valueOf(compactNum)
+                    .divide(BigDecimal.valueOf(compactDen), context)
+                    .stripTrailingZeros();
         return new BigDecimal(num)
                 .divide(new BigDecimal(den), context)
                 .stripTrailingZeros();
@@ -371,6 +551,8 @@ public class Rational extends Real implements Comparable<Rational> {
      * the denominator as a {@link BigInteger}.
      */
     public BigInteger toBigInteger() {
+        if (isCompact())
+            return BigInteger.valueOf(compactNum / compactDen);
         return num.divide(den);
     }
 
@@ -381,7 +563,7 @@ public class Rational extends Real implements Comparable<Rational> {
      */
     @Override
     public int intValue() {
-        return toBigInteger().intValue();
+        return (int) longValue();
     }
 
     /**
@@ -391,6 +573,8 @@ public class Rational extends Real implements Comparable<Rational> {
      */
     @Override
     public long longValue() {
+        if (isCompact())
+            return compactNum / compactDen;
         return toBigInteger().longValue();
     }
 
@@ -426,8 +610,12 @@ public class Rational extends Real implements Comparable<Rational> {
     public boolean equals(Object other) {
         if (!(other instanceof Rational)) return false;
         Rational r = (Rational) other;
-        return signum() == r.signum()   // fast reject
-                && num.multiply(r.den).equals(den.multiply(r.num));
+        // Both forms are canonical, so equal values share the same form
+        if (isCompact())
+            return r.isCompact()
+                    && compactNum == r.compactNum
+                    && compactDen == r.compactDen;
+        return !r.isCompact() && num.equals(r.num) && den.equals(r.den);
     }
 
     /**
@@ -438,6 +626,8 @@ public class Rational extends Real implements Comparable<Rational> {
      */
     @Override
     public int hashCode() {
+        if (isCompact())
+            return 31 * Long.hashCode(compactNum) + Long.hashCode(compactDen);
         return Objects.hash(num, den);
     }
 
@@ -448,6 +638,8 @@ public class Rational extends Real implements Comparable<Rational> {
      */
     @Override
     public String toString() {
+        if (isCompact())
+            return compactNum + (compactDen == 1 ? "" : "/" + compactDen);
         return num + (den.equals(BigInteger.ONE) ? "" : "/" + den);
     }
 
@@ -467,7 +659,13 @@ public class Rational extends Real implements Comparable<Rational> {
         // A big help, this one...
         if (signum() != r.signum())
             return Integer.compare(signum(), r.signum());
-        return num.multiply(r.den).compareTo(r.num.multiply(den));
+        if (isCompact() && r.isCompact()
+                && productFits(compactNum, r.compactDen)
+                && productFits(r.compactNum, compactDen))
+            return Long.compare(compactNum * r.compactDen,
+                    r.compactNum * compactDen);
+        return getNumerator().multiply(r.getDenominator())
+                .compareTo(r.getNumerator().multiply(getDenominator()));
     }
 
     // Arithmetic methods
@@ -480,10 +678,25 @@ public class Rational extends Real implements Comparable<Rational> {
      * @return The sum of this Rational and the given one.
      */
     public Rational add(Rational term) {
-        BigInteger n1 = num;
-        BigInteger d1 = den;
-        BigInteger n2 = term.num;
-        BigInteger d2 = term.den;
+        if (isCompact() && term.isCompact()) {
+            long n1 = compactNum;
+            long d1 = compactDen;
+            long n2 = term.compactNum;
+            long d2 = term.compactDen;
+
+            long g = gcd(d1, d2);
+            long div1 = d1 / g;
+            long div2 = d2 / g;
+            // Each product stays below 2^62, so the sum cannot overflow
+            if (productFits(div1, d2)
+                    && productFits(n1, div2)
+                    && productFits(n2, div1))
+                return compact(n1 * div2 + n2 * div1, div1 * d2);
+        }
+        BigInteger n1 = getNumerator();
+        BigInteger d1 = getDenominator();
+        BigInteger n2 = term.getNumerator();
+        BigInteger d2 = term.getDenominator();
 
         BigInteger g = d1.gcd(d2);
         BigInteger n, d;
@@ -520,6 +733,8 @@ public class Rational extends Real implements Comparable<Rational> {
      * @return The additive inverse or negative of this Rational.
      */
     public Rational negate() {
+        if (isCompact())
+            return new Rational(-compactNum, compactDen);
         return new Rational(num.negate(), den);
     }
 
@@ -537,6 +752,8 @@ public class Rational extends Real implements Comparable<Rational> {
         if (signum() == 0) {
             throw new ArithmeticException("Zero denominator.");
         }
+        if (isCompact())
+            return new Rational(compactDen, compactNum);
         return new Rational(den, num);
     }
 
@@ -548,10 +765,22 @@ public class Rational extends Real implements Comparable<Rational> {
      * @return The product of this Rational and the given one.
      */
     public Rational multiply(Rational term) {
-        BigInteger n1 = num;
-        BigInteger d1 = den;
-        BigInteger n2 = term.num;
-        BigInteger d2 = term.den;
+        if (isCompact() && term.isCompact()) {
+            long g1 = gcd(compactNum, term.compactDen);
+            long g2 = gcd(compactDen, term.compactNum);
+
+            long n1 = compactNum / g1;
+            long n2 = term.compactNum / g2;
+            long d1 = compactDen / g2;
+            long d2 = term.compactDen / g1;
+
+            if (productFits(n1, n2) && productFits(d1, d2))
+                return compact(n1 * n2, d1 * d2);
+        }
+        BigInteger n1 = getNumerator();
+        BigInteger d1 = getDenominator();
+        BigInteger n2 = term.getNumerator();
+        BigInteger d2 = term.getDenominator();
 
         BigInteger g1 = n1.gcd(d2);
         BigInteger g2 = d1.gcd(n2);
@@ -575,6 +804,28 @@ public class Rational extends Real implements Comparable<Rational> {
         return this.multiply(term.reciprocate());
     }
 
+    /**
+     * Returns a Rational whose value is this Rational multiplied by
+     * 2<sup>n</sup>. Since only the factors of 2 have to be cancelled, no
+     * general GCD is needed; this makes it the cheap way to obtain the value
+     * of a binary fixed-point number.
+     *
+     * @param n The power of 2 to multiply by. It may be negative.
+     * @return This Rational multiplied by 2<sup>n</sup>.
+     */
+    public Rational scaleByPowerOfTwo(final int n) {
+        if (n == 0 || signum() == 0)
+            return this;
+        BigInteger n0 = getNumerator();
+        BigInteger d0 = getDenominator();
+        if (n > 0) {
+            int twos = Math.min(d0.getLowestSetBit(), n);
+            return fromReduced(n0.shiftLeft(n - twos), d0.shiftRight(twos));
+        }
+        int twos = Math.min(n0.getLowestSetBit(), -n);
+        return fromReduced(n0.shiftRight(twos), d0.shiftLeft(-n - twos));
+    }
+
     /**
      * Returns the absolute value or magnitude of this Rational number.
      * <p>
@@ -600,8 +851,8 @@ public class Rational extends Real implements Comparable<Rational> {
      */
     public Rational pow(int power) {
         boolean neg = power < 0;
-        BigInteger n = num;
-        BigInteger d = den;
+        BigInteger n = getNumerator();
+        BigInteger d = getDenominator();
         int abs = neg ? -power : power;
         n = n.pow(abs);
         d = d.pow(abs);
@@ -628,15 +879,15 @@ public class Rational extends Real implements Comparable<Rational> {
      */
     public Rational pow(Rational power, MathContext context)
             throws ArithmeticException {
-        if (signum() < 0 && (power.den.intValueExact() & 1) != 1) {
+        int root = power.getDenominator().intValueExact();
+        if (signum() < 0 && (root & 1) != 1) {
             throw new ArithmeticException("Real principal root doesn't exist.");
         }
-        int pow = power.num.intValueExact();
+        int pow = power.getNumerator().intValueExact();
         boolean neg = pow < 0;
         pow = neg ? -pow : pow;
-        BigInteger n0 = num.pow(pow);
-        BigInteger d0 = den.pow(pow);
-        int root = power.den.intValueExact();
+        BigInteger n0 = getNumerator().pow(pow);
+        BigInteger d0 = getDenominator().pow(pow);
         if (root == 1)
             return neg ? getCorrectedRational(d0, n0) : getCorrectedRational(n0, d0);
         else
@@ -648,7 +899,7 @@ public class Rational extends Real implements Comparable<Rational> {
      * non-integral.
      * <p>
      * It takes the nth root after exponentiation has been dealt with by the
-     * main pow method.
+     * main pow method. If both parts are perfect powers, the result is exact.
      *
      * @param n0      The numerator to use.
      * @param d0      The denominator to use.
@@ -663,8 +914,21 @@ public class Rational extends Real implements Comparable<Rational> {
         if (context == null) {
             throw new ArithmeticException("MathContext is null for fractional power.");
         }
-        BigDecimal n = BigMath.nthRoot(n0, root, context);
-        BigDecimal d = BigMath.nthRoot(d0, root, context);
+        // The root is exact if both parts are perfect powers
+        BigInteger nRoot = BigMath.perfectRoot(n0, root);
+        BigInteger dRoot = BigMath.perfectRoot(d0, root);
+        if (nRoot != null && dRoot != null) {
+            return neg
+                    ? getCorrectedRational(dRoot, nRoot)
+                    : getCorrectedRational(nRoot, dRoot);
+        }
+        // Reuse the exact root of either part, if any
+        BigDecimal n = nRoot != null
+                ? new BigDecimal(nRoot)
+                : BigMath.paddedRoot(new BigDecimal(n0), root, context);
+        BigDecimal d = dRoot != null
+                ? new BigDecimal(dRoot)
+                : BigMath.paddedRoot(new BigDecimal(d0), root, context);
         return neg
                 ? getRationalFromFractions(d, n)
                 : getRationalFromFractions(n, d);
@@ -680,11 +944,41 @@ public class Rational extends Real implements Comparable<Rational> {
      */
     public Rational dropTo(MathContext context) {
         MathContext context2 = Helper.expandContext(context, 2);
-        BigInteger n = new BigDecimal(num).round(context2).toBigInteger();
-        BigInteger d = new BigDecimal(den).round(context2).toBigInteger();
+        // A compact part never has more than 19 digits
+        if (isCompact() && context2.getPrecision() >= 19)
+            return this;
+        BigInteger n = new BigDecimal(getNumerator()).round(context2).toBigInteger();
+        BigInteger d = new BigDecimal(getDenominator()).round(context2).toBigInteger();
         return Rational.valueOf(n, d);
     }
 
+    /**
+     * Creates a new Rational that retains the desired number of significant
+     * bits. Both parts are shifted right by the same amount, so that the
+     * smaller of them is left with the required number of bits. The
+     * relative error introduced is therefore less than 2<sup>2-bits</sup>.
+     * If the required precision exceeds the current, no effective change
+     * occurs.
+     * <p>
+     * This is much cheaper than {@link #dropTo(MathContext)}, which needs to
+     * divide both parts by powers of ten, and is meant to be used for the
+     * intermediate results in long calculations.
+     *
+     * @param context The desired binary precision for truncation.
+     * @return A new Rational with the desired precision.
+     */
+    public Rational dropTo(BinaryContext context) {
+        int bits = context.getBits();
+        if (bits == 0 || (isCompact() && bits >= Long.SIZE))
+            return this;
+        BigInteger n = getNumerator();
+        BigInteger d = getDenominator();
+        int shift = Math.min(n.bitLength(), d.bitLength()) - bits;
+        if (shift <= 0)
+            return this;
+        return new Rational(n.shiftRight(shift), d.shiftRight(shift));
+    }
+
     /**
      * This method returns true if this Rational encapsulates an integral
      * value (i.e. with denominator as one).
@@ -692,6 +986,8 @@ public class Rational extends Real implements Comparable<Rational> {
      * @return {@code true} If this Rational is an integer.
      */
     public boolean isInteger() {
+        if (isCompact())
+            return compactDen == 1;
         return den.equals(BigInteger.ONE);
     }
 }
@@ -0,0 +1,283 @@
+/*
+ * The MIT License (MIT)
+ * ---------------------
+ *
+ * Copyright (c) 2015-2016 Cristatus Solutions
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+ * NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR
+ * THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cristatus.core;
+
+import cristatus.core.utils.BinaryContext;
+import cristatus.core.utils.Helper;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+
+/**
+ * A mutable companion to {@link Rational}, meant for long running
+ * summations such as the ones in series expansions.
+ * <p>
+ * Unlike a Rational, the numerator and the denominator of an accumulator
+ * are never reduced to their lowest terms while it is being updated, and no
+ * Rational is created for intermediate results. The parts are still
+ * immutable BigIntegers, so every update allocates new ones; only the
+ * wrappers and the gcd computations are saved. The size of the parts
+ * is instead kept in check by calling {@link #dropTo(BinaryContext)}
+ * periodically. The reduction is done only once, when the final result is
+ * obtained through {@link #toRational()}.
+ * <p>
+ * All the arithmetic methods modify this accumulator and return it, so that
+ * calls can be chained:
+ * <p>
+ * <pre><code>
+ *     sum.add(partial).dropTo(context);
+ *     partial.multiply(term).divide(i);
+ * </code></pre>
+ * <p>
+ * Instances of this class are <i>not</i> thread-safe.
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+@SuppressWarnings("WeakerAccess")
+public class RationalAccumulator {
+
+    // The parts are unreduced, but the denominator is always positive
+    private BigInteger num;
+    private BigInteger den;
+
+    /**
+     * Creates a new accumulator with the value 0.
+     */
+    public RationalAccumulator() {
+        this(Rational.ZERO);
+    }
+
+    /**
+     * Creates a new accumulator with the given initial value.
+     *
+     * @param initial The initial value.
+     */
+    public RationalAccumulator(final Rational initial) {
+        set(initial);
+    }
+
+    /**
+     * Replaces the current value of this accumulator with the given one.
+     *
+     * @param value The new value.
+     * @return This accumulator.
+     */
+    public RationalAccumulator set(final Rational value) {
+        num = value.getNumerator();
+        den = value.getDenominator();
+        return this;
+    }
+
+    /**
+     * Returns the signum function of the current value.
+     *
+     * @return -1, 0 or 1 as the current value is negative, zero or positive.
+     */
+    public int signum() {
+        return num.signum();
+    }
+
+    /**
+     * Adds the given Rational to this accumulator.
+     *
+     * @param term The Rational to add.
+     * @return This accumulator.
+     */
+    public RationalAccumulator add(final Rational term) {
+        return add(term.getNumerator(), term.getDenominator());
+    }
+
+    /**
+     * Adds the current value of the given accumulator to this one. The
+     * argument is not modified.
+     *
+     * @param term The accumulator whose value to add.
+     * @return This accumulator.
+     */
+    public RationalAccumulator add(final RationalAccumulator term) {
+        return add(term.num, term.den);
+    }
+
+    /**
+     * Adds the current value of the given accumulator, divided by the given
+     * integer, to this one. It saves a temporary object in sums like that
+     * of the logarithmic series. The argument is not modified.
+     *
+     * @param term    The accumulator whose value to add.
+     * @param divisor The non-zero divisor for the term.
+     * @return This accumulator.
+     * @throws ArithmeticException If the divisor is zero.
+     */
+    public RationalAccumulator addQuotient(final RationalAccumulator term,
+                                           final long divisor)
+            throws ArithmeticException {
+        if (divisor == 0) {
+            throw new ArithmeticException("Zero denominator.");
+        }
+        BigInteger d = term.den.multiply(BigInteger.valueOf(divisor));
+        return add(term.num, d);
+    }
+
+    /**
+     * Subtracts the given Rational from this accumulator.
+     *
+     * @param term The Rational to subtract.
+     * @return This accumulator.
+     */
+    public RationalAccumulator subtract(final Rational term) {
+        return add(term.getNumerator().negate(), term.getDenominator());
+    }
+
+    /**
+     * Adds n/d to the current value. The denominators are multiplied
+     * together only when they differ.
+     *
+     * @param n The numerator of the term.
+     * @param d The denominator of the term (may be negative).
+     * @return This accumulator.
+     */
+    private RationalAccumulator add(BigInteger n, BigInteger d) {
+        if (d.signum() < 0) {
+            n = n.negate();
+            d = d.negate();
+        }
+        if (den.equals(d)) {
+            num = num.add(n);
+        } else {
+            num = num.multiply(d).add(n.multiply(den));
+            den = den.multiply(d);
+        }
+        return this;
+    }
+
+    /**
+     * Multiplies this accumulator by the given Rational.
+     *
+     * @param term The Rational to multiply with.
+     * @return This accumulator.
+     */
+    public RationalAccumulator multiply(final Rational term) {
+        num = num.multiply(term.getNumerator());
+        den = den.multiply(term.getDenominator());
+        return this;
+    }
+
+    /**
+     * Multiplies this accumulator by the given integer.
+     *
+     * @param factor The integer to multiply with.
+     * @return This accumulator.
+     */
+    public RationalAccumulator multiply(final long factor) {
+        num = num.multiply(BigInteger.valueOf(factor));
+        return this;
+    }
+
+    /**
+     * Divides this accumulator by the given integer.
+     *
+     * @param divisor The non-zero integer to divide by.
+     * @return This accumulator.
+     * @throws ArithmeticException If the divisor is zero.
+     */
+    public RationalAccumulator divide(final long divisor)
+            throws ArithmeticException {
+        if (divisor == 0) {
+            throw new ArithmeticException("Zero denominator.");
+        }
+        if (divisor < 0) {
+            num = num.negate();
+        }
+        den = den.multiply(BigInteger.valueOf(Math.abs(divisor)));
+        return this;
+    }
+
+    /**
+     * Rounds the numerator and the denominator of this accumulator to the
+     * desired precision, exactly like {@link Rational#dropTo(MathContext)}.
+     * This is what keeps the parts from growing without bound during long
+     * summations.
+     *
+     * @param context The desired precision for rounding.
+     * @return This accumulator.
+     */
+    public RationalAccumulator dropTo(final MathContext context) {
+        MathContext context2 = Helper.expandContext(context, 2);
+        BigDecimal n = new BigDecimal(num).round(context2);
+        BigDecimal d = new BigDecimal(den).round(context2);
+        num = n.unscaledValue();
+        den = d.unscaledValue();
+        // Move the difference of the exponents to one of the parts
+        int shift = n.scale() - d.scale();
+        if (shift < 0) {
+            num = num.multiply(BigInteger.TEN.pow(-shift));
+        } else if (shift > 0) {
+            den = den.multiply(BigInteger.TEN.pow(shift));
+        }
+        return this;
+    }
+
+    /**
+     * Truncates the numerator and the denominator of this accumulator to the
+     * desired number of bits, exactly like
+     * {@link Rational#dropTo(BinaryContext)}. It is much cheaper than the
+     * decimal version and should be preferred inside loops.
+     *
+     * @param context The desired binary precision for truncation.
+     * @return This accumulator.
+     */
+    public RationalAccumulator dropTo(final BinaryContext context) {
+        int bits = context.getBits();
+        int shift = Math.min(num.bitLength(), den.bitLength()) - bits;
+        if (bits != 0 && shift > 0) {
+            num = num.shiftRight(shift);
+            den = den.shiftRight(shift);
+        }
+        return this;
+    }
+
+    /**
+     * Returns the current value of this accumulator as a Rational in its
+     * lowest terms.
+     *
+     * @return The current value as a Rational.
+     */
+    public Rational toRational() {
+        return Rational.valueOf(num, den);
+    }
+
+    /**
+     * Returns a representation of the current value as a String.
+     *
+     * @return A representation of the current value as a String.
+     */
+    @Override
+    public String toString() {
+        return toRational().toString();
+    }
+}
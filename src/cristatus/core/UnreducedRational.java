@@ -0,0 +1,379 @@
+/*
+ * The MIT License (MIT)
+ * ---------------------
+ *
+ * Copyright (c) 2015-2016 Cristatus Solutions
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+ * NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR
+ * THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cristatus.core;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+
+/**
+ * An opt-in, lazily normalised counterpart of {@link Rational}.
+ * <p>
+ * Every Rational is kept in its lowest terms, which means that every
+ * arithmetic operation pays for one or more GCD computations. For long
+ * chains of operations, it is much cheaper to reduce only once, at the end.
+ * An UnreducedRational does exactly that: the arithmetic methods simply
+ * cross-multiply the parts and never compute a GCD.
+ * <p>
+ * The value is reduced when it is <i>observed</i>, i.e. when
+ * {@link #toRational()}, {@link #getNumerator()},
+ * {@link #getDenominator()}, {@link #equals(Object)},
+ * {@link #hashCode()} or {@link #toString()} is called. The reduced form is
+ * cached. To keep the operands from growing too large, a result is also
+ * reduced eagerly as soon as either of its parts exceeds a threshold (in
+ * bits), which may be specified while creating the first operand.
+ * <p>
+ * The number of GCD computations that have been skipped over the whole
+ * chain of operations leading to a value is reported by
+ * {@link #getAvoidedGcds()}. The figure is exact for a linear chain, and an
+ * upper bound when operands share history.
+ * <p>
+ * Like Rational, all instances of this class are <i>immutable</i>.
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+@SuppressWarnings("WeakerAccess")
+public final class UnreducedRational implements Comparable<UnreducedRational> {
+
+    /**
+     * The default size (in bits) beyond which the parts are reduced eagerly.
+     */
+    public static final int DEFAULT_THRESHOLD = 1 << 16;
+
+    // The number of GCDs the equivalent Rational operations perform
+    private static final int ADD_GCDS = 2;
+    private static final int MULTIPLY_GCDS = 3;
+
+    // The parts are unreduced, but the denominator is always positive
+    private final BigInteger num;
+    private final BigInteger den;
+    private final int threshold;
+    private final long avoided;
+
+    // The cached reduced form; benign race as Rational is immutable
+    private Rational reduced;
+
+    private UnreducedRational(final BigInteger num, final BigInteger den,
+                              final int threshold, final long avoided) {
+        this.num = num;
+        this.den = den;
+        this.threshold = threshold;
+        this.avoided = avoided;
+    }
+
+    /**
+     * Returns an UnreducedRational with the value of the given Rational,
+     * which will be reduced eagerly beyond {@link #DEFAULT_THRESHOLD} bits.
+     *
+     * @param value The starting value.
+     * @return An UnreducedRational with the given value.
+     */
+    public static UnreducedRational valueOf(final Rational value) {
+        return valueOf(value, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Returns an UnreducedRational with the value of the given Rational.
+     * Results derived from it will be reduced as soon as either part
+     * exceeds the given number of bits.
+     *
+     * @param value     The starting value.
+     * @param threshold The size in bits beyond which to reduce eagerly.
+     * @return An UnreducedRational with the given value.
+     * @throws IllegalArgumentException If the threshold is not positive.
+     */
+    public static UnreducedRational valueOf(final Rational value,
+                                            final int threshold)
+            throws IllegalArgumentException {
+        if (threshold <= 0)
+            throw new IllegalArgumentException("Non-positive threshold.");
+        UnreducedRational result = new UnreducedRational(
+                value.getNumerator(), value.getDenominator(), threshold, 0
+        );
+        result.reduced = value;
+        return result;
+    }
+
+    /**
+     * Creates the result of an operation, reducing it if it has grown
+     * beyond the threshold.
+     *
+     * @param n       The numerator.
+     * @param d       The denominator (may be negative).
+     * @param avoided The number of GCDs skipped so far.
+     * @return The new UnreducedRational.
+     */
+    private UnreducedRational result(BigInteger n, BigInteger d,
+                                     long avoided) {
+        if (d.signum() < 0) {
+            n = n.negate();
+            d = d.negate();
+        }
+        if (n.bitLength() > threshold || d.bitLength() > threshold) {
+            BigInteger gcd = n.gcd(d);
+            n = n.divide(gcd);
+            d = d.divide(gcd);
+            avoided--;
+        }
+        return new UnreducedRational(n, d, threshold, avoided);
+    }
+
+    // Arithmetic methods
+
+    /**
+     * Returns the sum of this and the given UnreducedRational.
+     *
+     * @param term The term to add.
+     * @return The (unreduced) sum.
+     */
+    public UnreducedRational add(final UnreducedRational term) {
+        BigInteger n, d;
+        if (den.equals(term.den)) {
+            n = num.add(term.num);
+            d = den;
+        } else {
+            n = num.multiply(term.den).add(term.num.multiply(den));
+            d = den.multiply(term.den);
+        }
+        return result(n, d, avoided + term.avoided + ADD_GCDS);
+    }
+
+    /**
+     * Returns the sum of this UnreducedRational and the given Rational.
+     *
+     * @param term The term to add.
+     * @return The (unreduced) sum.
+     */
+    public UnreducedRational add(final Rational term) {
+        return add(valueOf(term, threshold));
+    }
+
+    /**
+     * Returns the difference of this and the given UnreducedRational.
+     *
+     * @param term The term to subtract.
+     * @return The (unreduced) difference.
+     */
+    public UnreducedRational subtract(final UnreducedRational term) {
+        return add(term.negate());
+    }
+
+    /**
+     * Returns the difference of this UnreducedRational and the given
+     * Rational.
+     *
+     * @param term The term to subtract.
+     * @return The (unreduced) difference.
+     */
+    public UnreducedRational subtract(final Rational term) {
+        return add(valueOf(term.negate(), threshold));
+    }
+
+    /**
+     * Returns the additive inverse of this UnreducedRational.
+     *
+     * @return The additive inverse.
+     */
+    public UnreducedRational negate() {
+        return new UnreducedRational(num.negate(), den, threshold, avoided);
+    }
+
+    /**
+     * Returns the product of this and the given UnreducedRational.
+     *
+     * @param term The term to multiply with.
+     * @return The (unreduced) product.
+     */
+    public UnreducedRational multiply(final UnreducedRational term) {
+        return result(num.multiply(term.num), den.multiply(term.den),
+                avoided + term.avoided + MULTIPLY_GCDS);
+    }
+
+    /**
+     * Returns the product of this UnreducedRational and the given Rational.
+     *
+     * @param term The term to multiply with.
+     * @return The (unreduced) product.
+     */
+    public UnreducedRational multiply(final Rational term) {
+        return multiply(valueOf(term, threshold));
+    }
+
+    /**
+     * Returns the quotient of this and the given UnreducedRational.
+     *
+     * @param term The divisor.
+     * @return The (unreduced) quotient.
+     * @throws ArithmeticException If the divisor is zero.
+     */
+    public UnreducedRational divide(final UnreducedRational term)
+            throws ArithmeticException {
+        if (term.signum() == 0) {
+            throw new ArithmeticException("Zero denominator.");
+        }
+        return result(num.multiply(term.den), den.multiply(term.num),
+                avoided + term.avoided + MULTIPLY_GCDS);
+    }
+
+    /**
+     * Returns the quotient of this UnreducedRational and the given Rational.
+     *
+     * @param term The divisor.
+     * @return The (unreduced) quotient.
+     * @throws ArithmeticException If the divisor is zero.
+     */
+    public UnreducedRational divide(final Rational term)
+            throws ArithmeticException {
+        return divide(valueOf(term, threshold));
+    }
+
+    // Observers - these may need the reduced form
+
+    /**
+     * Returns the signum function of this UnreducedRational. It does not
+     * require reduction.
+     *
+     * @return -1, 0 or 1 as the value is negative, zero or positive.
+     */
+    public int signum() {
+        return num.signum();
+    }
+
+    /**
+     * Returns the value of this UnreducedRational as a Rational, in its
+     * lowest terms. The result is cached.
+     *
+     * @return The value as a Rational.
+     */
+    public Rational toRational() {
+        Rational r = reduced;
+        if (r == null) {
+            r = Rational.valueOf(num, den);
+            reduced = r;
+        }
+        return r;
+    }
+
+    /**
+     * Returns the reduced numerator.
+     *
+     * @return The reduced numerator.
+     */
+    public BigInteger getNumerator() {
+        return toRational().getNumerator();
+    }
+
+    /**
+     * Returns the reduced denominator.
+     *
+     * @return The reduced denominator.
+     */
+    public BigInteger getDenominator() {
+        return toRational().getDenominator();
+    }
+
+    /**
+     * Returns a {@link BigDecimal} with the given accuracy. It does not
+     * require reduction.
+     *
+     * @param context The desired precision of representation.
+     * @return The value as a {@link BigDecimal}.
+     */
+    public BigDecimal toBigDecimal(final MathContext context) {
+        return new BigDecimal(num)
+                .divide(new BigDecimal(den), context)
+                .stripTrailingZeros();
+    }
+
+    /**
+     * Returns the number of GCD computations that were skipped over the
+     * whole chain of operations that led to this value, as compared to
+     * performing the same operations on {@link Rational}s. Eager
+     * reductions due to the threshold are accounted for.
+     * <p>
+     * The count of a result is the sum of the counts of its operands and
+     * the GCDs of the operation itself. It is exact when each operation
+     * combines the running value with a fresh operand, as in a linear chain
+     * of updates. If both operands derive from a common value (for
+     * example, {@code x.add(x)}), the GCDs skipped while obtaining that
+     * value are counted once for each operand, so the figure is then an
+     * upper bound.
+     *
+     * @return The number of GCD computations avoided.
+     */
+    public long getAvoidedGcds() {
+        return avoided;
+    }
+
+    /**
+     * Compares the values of the two UnreducedRationals. It does not require
+     * reduction.
+     *
+     * @param r The UnreducedRational to compare it with.
+     * @return -1, 0 or 1 as this is numerically less than, equal to, or
+     * greater than the given one.
+     */
+    @Override
+    public int compareTo(final UnreducedRational r) {
+        if (signum() != r.signum())
+            return Integer.compare(signum(), r.signum());
+        return num.multiply(r.den).compareTo(r.num.multiply(den));
+    }
+
+    /**
+     * Returns {@code true} if the argument is an UnreducedRational with the
+     * same value.
+     *
+     * @param other The Object to check for equality.
+     * @return {@code true} if the values are equal.
+     */
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof UnreducedRational
+                && toRational().equals(((UnreducedRational) other).toRational());
+    }
+
+    /**
+     * Returns the hash code of the reduced value.
+     *
+     * @return The hash code of the reduced value.
+     */
+    @Override
+    public int hashCode() {
+        return toRational().hashCode();
+    }
+
+    /**
+     * Returns a representation of the reduced value as a String.
+     *
+     * @return A representation of the reduced value as a String.
+     */
+    @Override
+    public String toString() {
+        return toRational().toString();
+    }
+}
@@ -26,8 +26,14 @@
 package cristatus.core.series;
 
 import cristatus.core.Rational;
+import cristatus.core.utils.BinaryContext;
+import cristatus.core.utils.Constants;
+import cristatus.core.utils.ExpGenerator;
 import cristatus.core.utils.Helper;
+import cristatus.core.utils.LogGenerator;
+import cristatus.core.utils.SeriesResult;
 
+import java.math.BigInteger;
 import java.math.MathContext;
 
 /**
@@ -36,59 +42,139 @@ import java.math.MathContext;
  */
 public class Exp {
 
+    /**
+     * The precision (in digits) up to which {@link #logSeries(Rational,
+     * MathContext)} uses a series. The arithmetic-geometric mean takes over
+     * beyond it.
+     */
+    public static final int LOG_SERIES_LIMIT = 500;
+
+    // The number of guard bits, so that the result can be rounded correctly
+    private static final int GUARD_BITS = 64;
+
     /**
      * Calculates an approximation to e<sup>x</sup> for the given precision.
-     * It warrants great performance for fractional arguments. For larger
-     * arguments, a better technique is needed.
+     * The argument is reduced first, so that arguments of any size (within
+     * the range of the result) can be handled; the reduced series is summed
+     * by binary splitting.
      *
-     * @param term    The fractional argument.
+     * @param term    The argument.
      * @param context The required precision.
      * @return The required exponentiated value.
+     * @see ExpGenerator#obtainRational(Rational, MathContext)
      */
     public static Rational expSeries(Rational term, MathContext context) {
-        Rational sum = Rational.ZERO;
-        Rational partial = Rational.ONE;
-
-        int limit = (int) (context.getPrecision() * 1.5);
-        MathContext workContext = Helper.expandContext(context, limit);
-
-        for (int i = 1; i <= limit; i++) {
-            sum = sum.add(partial).dropTo(workContext);
-
-            partial = partial.multiply(term);
-            partial = partial.divide(Rational.valueOf(i));
-        }
-        return sum.dropTo(context);
+        return ExpGenerator.obtainRational(term, context);
     }
 
     /**
      * Calculates the natural logarithm of the given argument with the given
      * precision.
+     * <p>
+     * Up to {@link #LOG_SERIES_LIMIT} digits, the series for atanh is used,
+     * after the nearest power of 2 has been taken out of the argument.
+     * Beyond that, the arithmetic-geometric mean is used, as its cost grows
+     * only quasi-linearly with the precision.
      *
      * @param term    The number whose logarithm to calculate.
      * @param context The desired precision.
      * @return The natural logarithm of the number.
+     * @throws ArithmeticException If the argument is not positive.
+     * @see LogGenerator#obtainRational(Rational, MathContext)
+     */
+    public static Rational logSeries(Rational term, MathContext context)
+            throws ArithmeticException {
+        return evaluateLog(term, context).getValue();
+    }
+
+    /**
+     * Calculates the natural logarithm of the given argument with the given
+     * precision, along with the number of terms of the series for atanh
+     * (or the number of iterations of the arithmetic-geometric mean) that
+     * were used.
+     *
+     * @param term    The number whose logarithm to calculate.
+     * @param context The desired precision.
+     * @return The natural logarithm of the number, and the number of terms.
+     * @throws ArithmeticException If the argument is not positive.
+     * @see #logSeries(Rational, MathContext)
      */
-    public static Rational logSeries(Rational term, MathContext context) {
-        int limit = context.getPrecision() << 2;
-        MathContext workContext = Helper.expandContext(context, limit);
+    public static SeriesResult<Rational> evaluateLog(Rational term,
+                                                     MathContext context)
+            throws ArithmeticException {
+        if (context.getPrecision() > LOG_SERIES_LIMIT) {
+            return LogGenerator.evaluate(term, context);
+        }
+        if (term.signum() <= 0) {
+            throw new ArithmeticException("Logarithm of a non-positive number.");
+        }
+        // ln(x) = ln(x / 2^e) + e ln(2), where 1/sqrt(2) <= x / 2^e <= sqrt(2)
+        int e = term.getNumerator().bitLength()
+                - term.getDenominator().bitLength();
+        double reduced = term.scaleByPowerOfTwo(-e).doubleValue();
+        if (reduced > Math.sqrt(2)) {
+            e++;
+        } else if (reduced < Math.sqrt(0.5)) {
+            e--;
+        }
+        if (e == 0) {
+            return atanhSeries(term, context);
+        }
+        Rational ln2 = Rational.valueOf(Constants.obtainLn2(
+                Helper.expandContext(context, context.getPrecision())
+        ));
+        SeriesResult<Rational> series
+                = atanhSeries(term.scaleByPowerOfTwo(-e), context);
+        return series.withValue(
+                series.getValue().add(ln2.multiply(Rational.valueOf(e)))
+        );
+    }
 
-        Rational part = Rational.valueOf(
+    /**
+     * Calculates the natural logarithm of the given argument, which should
+     * be close to 1, with the series ln(x) = 2 atanh((x - 1) / (x + 1)).
+     * <p>
+     * With z = (x - 1) / (x + 1), the term n is smaller than the first one
+     * by z<sup>2n</sup> / (2n + 1), and the terms after it add up to less
+     * than itself (as |z| &lt; 1/2). Hence, the number of terms is bounded
+     * in advance by the magnitude of z; the loop also stops as soon as a
+     * term vanishes at the working precision.
+     *
+     * @param term    The number whose logarithm to calculate.
+     * @param context The desired precision.
+     * @return The natural logarithm of the number, and the number of terms
+     * summed.
+     */
+    private static SeriesResult<Rational> atanhSeries(Rational term,
+                                                      MathContext context) {
+        Rational z = Rational.valueOf(
                 term.subtract(Rational.ONE),
                 term.add(Rational.ONE)
-        ).dropTo(workContext);
-
-        Rational sum = Rational.ZERO;
-        Rational partial = part;
-        part = part.pow(2);
-
-        for (int i = 0; i < limit; i++) {
-            sum = sum.add(partial.divide(Rational.valueOf((i << 1) + 1)));
-            sum = sum.dropTo(workContext);
-
-            partial = partial.multiply(part);
+        );
+        if (z.signum() == 0) {
+            return new SeriesResult<>(Rational.ZERO, 0, 0);
         }
+        int bits = BinaryContext.from(context).getBits() + GUARD_BITS;
+        // The result is about 2z: keep "bits" bits below its leading one
+        int magnitude = z.getDenominator().bitLength()
+                - z.getNumerator().bitLength() + 1;
+        double log = -Math.log(Math.abs(z.doubleValue())) / Math.log(2);
+        long terms = (long) Math.ceil((bits + 1) / (2 * log)) + 1;
+        // Each truncation costs less than a unit in the last place
+        int work = bits + magnitude + 64 - Long.numberOfLeadingZeros(terms);
 
-        return sum.multiply(Rational.valueOf(2)).dropTo(workContext);
+        BigInteger x = z.getNumerator().shiftLeft(work)
+                .divide(z.getDenominator());
+        BigInteger square = x.multiply(x).shiftRight(work);
+        BigInteger power = x;
+        BigInteger sum = BigInteger.ZERO;
+        long k = 0;
+        for (; k < terms && power.signum() != 0; k++) {
+            sum = sum.add(power.divide(BigInteger.valueOf((k << 1) + 1)));
+            power = power.multiply(square).shiftRight(work);
+        }
+        return new SeriesResult<>(
+                Rational.valueOf(sum).scaleByPowerOfTwo(1 - work), k, terms
+        );
     }
 }
@@ -26,14 +26,15 @@
 package cristatus.core.series;
 
 import cristatus.core.Rational;
-import cristatus.core.utils.Helper;
+import cristatus.core.utils.AtanGenerator;
+import cristatus.core.utils.TrigGenerator;
 
 import java.math.MathContext;
 
 /**
  * This class contains methods that help to approximate the various
- * trigonometric ratios using series expansions. These are accurate only for
- * angles upto 45 degrees (&pi;/4 radians).
+ * trigonometric ratios and their inverses using series expansions. All of
+ * them can be calculated for any argument in their domain.
  *
  * @author Subhomoy Haldar
  * @version 1.0
@@ -41,73 +42,95 @@ import java.math.MathContext;
 public class Trig {
 
     /**
-     * Calculates an approximation for the sine of the given angle in radians
-     * using the standard series, provided the angle is less than or equal to
-     * &pi;/4.
+     * Calculates an approximation for the sine of the given angle in
+     * radians. The angle is reduced modulo &pi;/2 and halved before the
+     * series is summed.
      *
-     * @param angle   The angle in radians (&leq; &pi;/4).
+     * @param angle   The angle in radians.
      * @param context The required precision.
      * @return An approximation of the sine of the angle.
+     * @see TrigGenerator#obtainSin(Rational, MathContext)
      */
     public static Rational sinSeries(Rational angle, MathContext context) {
-        Rational sum = Rational.ZERO;
-        Rational partial = Rational.ONE;
-        boolean negative = false;
-
-        int limit = (int) (context.getPrecision() * 1.5);
-
-        for (int i = 1; i <= limit; i++) {
-            if ((i & 1) == 0) {
-                sum = sum.add(negative ? partial.negate() : partial);
-                negative ^= true;
-            }
-            partial = partial.multiply(Rational.valueOf(angle, i));
-        }
-        return sum;
+        return TrigGenerator.obtainSin(angle, context);
     }
 
     /**
-     * Calculates an approximation for the cosine of the given angle in radians
-     * using the standard series, provided the angle is less than or equal to
-     * &pi;/4.
+     * Calculates an approximation for the cosine of the given angle in
+     * radians. The angle is reduced modulo &pi;/2 and halved before the
+     * series is summed.
      *
-     * @param angle   The angle in radians (&leq; &pi;/4).
+     * @param angle   The angle in radians.
      * @param context The required precision.
      * @return An approximation of the cosine of the angle.
+     * @see TrigGenerator#obtainCos(Rational, MathContext)
      */
     public static Rational cosSeries(Rational angle, MathContext context) {
-        Rational sum = Rational.ZERO;
-        Rational partial = Rational.ONE;
-        boolean negative = false;
-
-        int limit = (int) (context.getPrecision() * 1.5);
+        return TrigGenerator.obtainCos(angle, context);
+    }
 
-        for (int i = 1; i <= limit; i++) {
-            if ((i & 1) == 1) {
-                sum = sum.add(negative ? partial.negate() : partial);
-                negative ^= true;
-            }
-            partial = partial.multiply(Rational.valueOf(angle, i));
-        }
-        return sum;
+    /**
+     * Calculates approximations for both the sine and the cosine of the
+     * given angle in radians, for the cost of one of them.
+     *
+     * @param angle   The angle in radians.
+     * @param context The required precision.
+     * @return The array {sine, cosine} of the angle.
+     * @see TrigGenerator#obtainSinCos(Rational, MathContext)
+     */
+    public static Rational[] sinCos(Rational angle, MathContext context) {
+        return TrigGenerator.obtainSinCos(angle, context);
     }
 
-    // Accurate upto <= 2-sqrt(3)
+    /**
+     * Calculates an approximation for the arc-tangent of the given argument.
+     * The argument may be of any size; it is reduced by symmetry and by
+     * halving before the series is summed.
+     *
+     * @param term    The argument.
+     * @param context The required precision.
+     * @return An approximation of the arc-tangent, in (-&pi;/2, &pi;/2).
+     * @see AtanGenerator#obtainAtan(Rational, MathContext)
+     */
     public static Rational atanSeries(Rational term, MathContext context) {
-        Rational sum = Rational.ZERO;
-        Rational partial = term;
-        Rational square = term.pow(2).negate();
-
-        int limit = (int) (context.getPrecision() * 1.5);
-        MathContext workContext = Helper.expandContext(context, limit);
+        return AtanGenerator.obtainAtan(term, context);
+    }
 
-        for (int i = 0; i < limit; i++) {
-            sum = sum.add(partial.divide(Rational.valueOf((i << 1) + 1)));
-            sum = sum.dropTo(workContext);
+    /**
+     * Calculates an approximation for the angle of the point (x, y), that
+     * is, the arc-tangent of y / x placed in the right quadrant.
+     *
+     * @param y       The ordinate.
+     * @param x       The abscissa.
+     * @param context The required precision.
+     * @return An approximation of the angle, in (-&pi;, &pi;].
+     * @see AtanGenerator#obtainAtan2(Rational, Rational, MathContext)
+     */
+    public static Rational atan2(Rational y, Rational x, MathContext context) {
+        return AtanGenerator.obtainAtan2(y, x, context);
+    }
 
-            partial = partial.multiply(square);
-        }
+    /**
+     * Calculates an approximation for the arc-sine of the given argument.
+     *
+     * @param term    The argument, in [-1, 1].
+     * @param context The required precision.
+     * @return An approximation of the arc-sine, in [-&pi;/2, &pi;/2].
+     * @see AtanGenerator#obtainAsin(Rational, MathContext)
+     */
+    public static Rational asin(Rational term, MathContext context) {
+        return AtanGenerator.obtainAsin(term, context);
+    }
 
-        return sum.dropTo(workContext);
+    /**
+     * Calculates an approximation for the arc-cosine of the given argument.
+     *
+     * @param term    The argument, in [-1, 1].
+     * @param context The required precision.
+     * @return An approximation of the arc-cosine, in [0, &pi;].
+     * @see AtanGenerator#obtainAcos(Rational, MathContext)
+     */
+    public static Rational acos(Rational term, MathContext context) {
+        return AtanGenerator.obtainAcos(term, context);
     }
 }
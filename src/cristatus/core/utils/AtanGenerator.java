@@ -0,0 +1,434 @@
+/*
+ * The MIT License (MIT)
+ * ---------------------
+ *
+ * Copyright (c) 2015-2016 Cristatus Solutions
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+ * NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR
+ * THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cristatus.core.utils;
+
+import cristatus.core.Rational;
+
+import java.math.BigInteger;
+import java.math.MathContext;
+
+/**
+ * This class acts as the access point for the calculation of the inverse
+ * trigonometric functions (arc-tangent, arc-sine and arc-cosine) to high
+ * precision, for arguments of any size.
+ * <p>
+ * All of them are reduced to atan2(y, x), and that in turn to atan(a / b),
+ * where 0 &le; a &le; b, by symmetry and with the cached value of &pi;.
+ * When a and b are exact and small integers, and a is sufficiently smaller
+ * than b, the series
+ * <pre>
+ *     atan(a/b) = ab / (a<sup>2</sup> + b<sup>2</sup>) &sum; (k &ge; 0) &prod; (j = 1 to k) 2j a<sup>2</sup> / ((2j + 1) (a<sup>2</sup> + b<sup>2</sup>))
+ * </pre>
+ * is summed exactly by binary splitting. Otherwise, the half-angle identity
+ * <pre>
+ *     atan(x) = 2 atan(x / (1 + &radic;(1 + x<sup>2</sup>)))
+ * </pre>
+ * shrinks the argument a few times, and the Taylor series is summed on
+ * binary fixed-point numbers, with every term truncated to the working
+ * precision.
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class AtanGenerator {
+
+    // The number of guard bits for the truncations
+    private static final int GUARD_BITS = 32;
+
+    private static final double LN2 = Math.log(2);
+    // The largest exact denominator that is summed by splitting
+    private static final int SMALL_RATIONAL_BITS = 256;
+    // Splitting is used if the denominator has at most this many bits for
+    // every bit that a term adds; the halvings are cheaper beyond that
+    private static final int SPLIT_FACTOR = 2;
+
+    /**
+     * This method returns the arc-tangent of the given argument,
+     * approximated to the desired precision.
+     *
+     * @param x       The argument.
+     * @param context The {@link MathContext} to specify the precision of
+     *                calculation.
+     * @return The arc-tangent of the argument, in (-&pi;/2, &pi;/2).
+     * @throws ArithmeticException If the context is {@code null}.
+     */
+    public static Rational obtainAtan(final Rational x,
+                                      final MathContext context)
+            throws ArithmeticException {
+        return evaluateAtan(x, context).getValue();
+    }
+
+    /**
+     * This method returns the arc-tangent of the given argument,
+     * approximated to the desired precision, along with the number of terms
+     * summed.
+     *
+     * @param x       The argument.
+     * @param context The {@link MathContext} to specify the precision of
+     *                calculation.
+     * @return The arc-tangent of the argument, and the number of terms
+     * summed.
+     * @throws ArithmeticException If the context is {@code null}.
+     * @see #obtainAtan(Rational, MathContext)
+     */
+    public static SeriesResult<Rational> evaluateAtan(final Rational x,
+                                                      final MathContext context)
+            throws ArithmeticException {
+        return angle(x.getNumerator(), x.getDenominator(), true, context);
+    }
+
+    /**
+     * This method returns the angle of the point (x, y), approximated to
+     * the desired precision. It is the counterpart of
+     * {@link Math#atan2(double, double)}.
+     *
+     * @param y       The ordinate.
+     * @param x       The abscissa.
+     * @param context The {@link MathContext} to specify the precision of
+     *                calculation.
+     * @return The angle of the point, in [-&pi;, &pi;].
+     * @throws ArithmeticException If the context is {@code null}.
+     */
+    public static Rational obtainAtan2(final Rational y,
+                                       final Rational x,
+                                       final MathContext context)
+            throws ArithmeticException {
+        return evaluateAtan2(y, x, context).getValue();
+    }
+
+    /**
+     * This method returns the angle of the point (x, y), approximated to
+     * the desired precision, along with the number of terms summed.
+     *
+     * @param y       The ordinate.
+     * @param x       The abscissa.
+     * @param context The {@link MathContext} to specify the precision of
+     *                calculation.
+     * @return The angle of the point, and the number of terms summed.
+     * @throws ArithmeticException If the context is {@code null}.
+     * @see #obtainAtan2(Rational, Rational, MathContext)
+     */
+    public static SeriesResult<Rational> evaluateAtan2(final Rational y,
+                                                       final Rational x,
+                                                       final MathContext context)
+            throws ArithmeticException {
+        // Bring both to the same (positive) denominator
+        BigInteger ordinate = y.getNumerator().multiply(x.getDenominator());
+        BigInteger abscissa = x.getNumerator().multiply(y.getDenominator());
+        return angle(ordinate, abscissa, true, context);
+    }
+
+    /**
+     * This method returns the arc-sine of the given argument, approximated
+     * to the desired precision.
+     *
+     * @param x       The argument, in [-1, 1].
+     * @param context The {@link MathContext} to specify the precision of
+     *                calculation.
+     * @return The arc-sine of the argument, in [-&pi;/2, &pi;/2].
+     * @throws ArithmeticException If the context is {@code null}, or if the
+     *                             argument lies outside [-1, 1].
+     */
+    public static Rational obtainAsin(final Rational x,
+                                      final MathContext context)
+            throws ArithmeticException {
+        return evaluateAsin(x, context).getValue();
+    }
+
+    /**
+     * This method returns the arc-sine of the given argument, approximated
+     * to the desired precision, along with the number of terms summed.
+     *
+     * @param x       The argument, in [-1, 1].
+     * @param context The {@link MathContext} to specify the precision of
+     *                calculation.
+     * @return The arc-sine of the argument, and the number of terms summed.
+     * @throws ArithmeticException If the context is {@code null}, or if the
+     *                             argument lies outside [-1, 1].
+     * @see #obtainAsin(Rational, MathContext)
+     */
+    public static SeriesResult<Rational> evaluateAsin(final Rational x,
+                                                      final MathContext context)
+            throws ArithmeticException {
+        // asin(x) = atan2(x, sqrt(1 - x^2))
+        BigInteger[] legs = legs(x, context);
+        return angle(legs[0], legs[1], legs[2].signum() != 0, context);
+    }
+
+    /**
+     * This method returns the arc-cosine of the given argument,
+     * approximated to the desired precision.
+     *
+     * @param x       The argument, in [-1, 1].
+     * @param context The {@link MathContext} to specify the precision of
+     *                calculation.
+     * @return The arc-cosine of the argument, in [0, &pi;].
+     * @throws ArithmeticException If the context is {@code null}, or if the
+     *                             argument lies outside [-1, 1].
+     */
+    public static Rational obtainAcos(final Rational x,
+                                      final MathContext context)
+            throws ArithmeticException {
+        return evaluateAcos(x, context).getValue();
+    }
+
+    /**
+     * This method returns the arc-cosine of the given argument,
+     * approximated to the desired precision, along with the number of terms
+     * summed.
+     *
+     * @param x       The argument, in [-1, 1].
+     * @param context The {@link MathContext} to specify the precision of
+     *                calculation.
+     * @return The arc-cosine of the argument, and the number of terms
+     * summed.
+     * @throws ArithmeticException If the context is {@code null}, or if the
+     *                             argument lies outside [-1, 1].
+     * @see #obtainAcos(Rational, MathContext)
+     */
+    public static SeriesResult<Rational> evaluateAcos(final Rational x,
+                                                      final MathContext context)
+            throws ArithmeticException {
+        // acos(x) = atan2(sqrt(1 - x^2), x)
+        BigInteger[] legs = legs(x, context);
+        return angle(legs[1], legs[0], legs[2].signum() != 0, context);
+    }
+
+    /**
+     * Returns x and &radic;(1 - x<sup>2</sup>), multiplied by the same
+     * factor so that both are integers. If the root is irrational, both
+     * carry enough bits after the binary point for the given precision.
+     *
+     * @param x       The argument, in [-1, 1].
+     * @param context The precision required.
+     * @return The array {x, &radic;(1 - x<sup>2</sup>), 1 if exact else 0}.
+     * @throws ArithmeticException If the argument lies outside [-1, 1].
+     */
+    private static BigInteger[] legs(final Rational x,
+                                     final MathContext context)
+            throws ArithmeticException {
+        if (context == null) {
+            throw new ArithmeticException("A non-null context is needed.");
+        }
+        BigInteger num = x.getNumerator();
+        BigInteger den = x.getDenominator();
+        // 1 - x^2 = (den^2 - num^2) / den^2, exactly
+        BigInteger difference = den.pow(2).subtract(num.pow(2));
+        if (difference.signum() < 0) {
+            throw new ArithmeticException("Argument out of range.");
+        }
+        BigInteger[] rootRem = BigMath.isqrtRem(difference);
+        if (rootRem[1].signum() == 0) {
+            return new BigInteger[]{num, rootRem[0], BigInteger.ONE};
+        }
+        // Both legs with enough bits after the binary point
+        int bits = BinaryContext.from(context).getBits() + GUARD_BITS
+                + den.bitLength();
+        BigInteger root = BigMath.isqrtRem(difference.shiftLeft(bits << 1))[0];
+        return new BigInteger[]{num.shiftLeft(bits), root, BigInteger.ZERO};
+    }
+
+    /**
+     * Returns atan2(y, x) for the given integers.
+     *
+     * @param y       The ordinate.
+     * @param x       The abscissa.
+     * @param exact   Whether the integers are exact (and not truncated).
+     * @param context The precision required.
+     * @return The angle of the point (x, y), in [-&pi;, &pi;], and the
+     * number of terms summed.
+     * @throws ArithmeticException If the context is {@code null}.
+     */
+    private static SeriesResult<Rational> angle(final BigInteger y,
+                                  final BigInteger x,
+                                  final boolean exact,
+                                  final MathContext context)
+            throws ArithmeticException {
+        // No nulls please
+        if (context == null) {
+            throw new ArithmeticException("A non-null context is needed.");
+        }
+        if (y.signum() == 0 && x.signum() >= 0) {
+            return new SeriesResult<>(Rational.ZERO, 0, 0);
+        }
+        BigInteger a = y.abs();
+        BigInteger b = x.abs();
+        // A small angle needs more bits after the binary point
+        int scale = BinaryContext.from(context).getBits() + GUARD_BITS
+                + Math.max(0, b.bitLength() - a.bitLength());
+        SeriesResult<BigInteger> series;
+        BigInteger theta;
+        if (a.compareTo(b) <= 0) {
+            series = ratio(a, b, exact, scale);
+            theta = series.getValue();
+        } else {
+            // atan(a/b) = pi/2 - atan(b/a)
+            series = ratio(b, a, exact, scale);
+            theta = PiGenerator.obtainFixed(scale - 1)
+                    .subtract(series.getValue());
+        }
+        if (x.signum() < 0) {
+            theta = PiGenerator.obtainFixed(scale).subtract(theta);
+        }
+        if (y.signum() < 0) {
+            theta = theta.negate();
+        }
+        return series.withValue(
+                Rational.valueOf(theta).scaleByPowerOfTwo(-scale)
+        );
+    }
+
+    /**
+     * Returns atan(a / b), where 0 &le; a &le; b, as a fixed-point number.
+     *
+     * @param a     The numerator.
+     * @param b     The (positive) denominator.
+     * @param exact Whether the integers are exact (and not truncated).
+     * @param scale The number of bits after the binary point.
+     * @return The value of 2<sup>scale</sup> atan(a / b), truncated.
+     */
+    static BigInteger atanRatio(final BigInteger a,
+                                final BigInteger b,
+                                final boolean exact,
+                                final int scale) {
+        return ratio(a, b, exact, scale).getValue();
+    }
+
+    /**
+     * Returns atan(a / b), where 0 &le; a &le; b, as a fixed-point number,
+     * along with the number of terms summed.
+     *
+     * @param a     The numerator.
+     * @param b     The (positive) denominator.
+     * @param exact Whether the integers are exact (and not truncated).
+     * @param scale The number of bits after the binary point.
+     * @return The value of 2<sup>scale</sup> atan(a / b), truncated, and the
+     * number of terms summed.
+     */
+    private static SeriesResult<BigInteger> ratio(final BigInteger a,
+                                                  final BigInteger b,
+                                                  final boolean exact,
+                                                  final int scale) {
+        if (a.signum() == 0) {
+            return new SeriesResult<>(BigInteger.ZERO, 0, 0);
+        }
+        if (a.equals(b)) {
+            // atan(1) = pi/4
+            return new SeriesResult<>(
+                    PiGenerator.obtainFixed(scale).shiftRight(2), 0, 0
+            );
+        }
+        if (exact && b.bitLength() <= SMALL_RATIONAL_BITS) {
+            // Each term is smaller than the one before by (a^2 + b^2) / a^2
+            double ratio = b.doubleValue() / a.doubleValue();
+            double bitsPerTerm = Math.log1p(ratio * ratio) / Math.log(2);
+            // The integers of the splitting grow with the size of a and b
+            if (b.bitLength() <= bitsPerTerm * SPLIT_FACTOR) {
+                return atanSplit(a, b, scale);
+            }
+        }
+        return atanHalving(a, b, scale);
+    }
+
+    /**
+     * Sums the series for atan(a / b) exactly by binary splitting.
+     *
+     * @param a     The numerator.
+     * @param b     The (larger) denominator.
+     * @param scale The number of bits after the binary point.
+     * @return The value of 2<sup>scale</sup> atan(a / b), truncated, and the
+     * number of terms summed.
+     */
+    private static SeriesResult<BigInteger> atanSplit(final BigInteger a,
+                                        final BigInteger b,
+                                        final int scale) {
+        BigInteger square = a.multiply(a);
+        BigInteger sum = square.add(b.multiply(b));
+        // a(k) = 1, p(k) = 2k a^2, q(k) = (2k + 1)(a^2 + b^2)
+        HypergeometricSeries euler = new HypergeometricSeries(
+                new BigInteger[]{BigInteger.ONE},
+                new BigInteger[]{BigInteger.ZERO, square.shiftLeft(1)},
+                new BigInteger[]{sum, sum.shiftLeft(1)}
+        );
+        long terms = euler.terms(scale);
+        RatioSplitter.Result series = euler.split(terms);
+        // ab / (a^2 + b^2) (T / Q)
+        return new SeriesResult<>(
+                a.multiply(b).multiply(series.t).shiftLeft(scale)
+                        .divide(sum.multiply(series.q)),
+                terms, terms
+        );
+    }
+
+    /**
+     * Calculates atan(a / b) by halving the angle a few times, and then
+     * summing the Taylor series with every term truncated.
+     *
+     * @param a     The numerator.
+     * @param b     The (larger) denominator.
+     * @param scale The number of bits after the binary point.
+     * @return The value of 2<sup>scale</sup> atan(a / b), truncated, and the
+     * number of terms summed.
+     */
+    private static SeriesResult<BigInteger> atanHalving(final BigInteger a,
+                                          final BigInteger b,
+                                          final int scale) {
+        // A halving costs a square root and a division, a term only a
+        // multiplication; the argument may already be small enough
+        int small = b.bitLength() - a.bitLength();
+        int halvings = Math.max(0, (int) Math.sqrt(scale >>> 3) - small);
+        // Each halving doubles the error
+        int wide = scale + halvings;
+        BigInteger one = BigInteger.ONE.shiftLeft(wide);
+        BigInteger x = a.shiftLeft(wide).divide(b);
+        for (int i = 0; i < halvings; i++) {
+            // x = x / (1 + sqrt(1 + x^2))
+            BigInteger root = BigMath.isqrtRem(
+                    one.shiftLeft(wide).add(x.multiply(x))
+            )[0];
+            x = x.shiftLeft(wide).divide(one.add(root));
+        }
+        // The powers x^(2k + 1) that are not below 2^-wide, from an upper
+        // bound of log2 |x| (with one bit of slack for the rounding)
+        int shift = Math.max(0, x.bitLength() - 53);
+        double log = Math.log(x.shiftRight(shift).doubleValue() + 1) / LN2
+                + shift - wide;
+        long bound = (long) (((wide + 1) / -Math.min(log, -Double.MIN_NORMAL)
+                - 1) / 2) + 1;
+        // atan(x) = x - x^3/3 + x^5/5 - ...
+        BigInteger square = x.multiply(x).shiftRight(wide);
+        BigInteger power = x;
+        BigInteger sum = BigInteger.ZERO;
+        long k = 0;
+        for (; power.signum() != 0; k++) {
+            BigInteger term = power.divide(BigInteger.valueOf((k << 1) + 1));
+            sum = (k & 1) == 0 ? sum.add(term) : sum.subtract(term);
+            power = power.multiply(square).shiftRight(wide);
+        }
+        // 2^halvings atan(x), with wide - scale = halvings bits to drop
+        return new SeriesResult<>(sum, k, bound);
+    }
+}
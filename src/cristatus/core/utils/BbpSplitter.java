@@ -0,0 +1,160 @@
+/*
+ * The MIT License (MIT)
+ * ---------------------
+ *
+ * Copyright (c) 2015-2016 Cristatus Solutions
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+ * NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR
+ * THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cristatus.core.utils;
+
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This is a subclass of {@link RecursiveTask} that evaluates the head of
+ * the Bailey-Borwein-Plouffe (BBP) formula for the fractional part of
+ * 16<sup>n</sup> &pi;:
+ * <pre>
+ *     &sum; (k = 0 to n) (16<sup>n - k</sup> mod m<sub>j</sub>) / m<sub>j</sub>, where m<sub>j</sub> = 8k + j
+ * </pre>
+ * for j = 1, 4, 5 and 6, weighted by 4, -2, -1 and -1 respectively.
+ * <p>
+ * The fractions are 64-bit binary fixed-point numbers, truncated, and are
+ * added with the wrap-around of {@code long} arithmetic, which is exactly
+ * the reduction modulo 1 that only the fractional part survives. Thus, each
+ * term adds an error of less than 8 units in the last place. The ranges of
+ * k are summed in parallel, in constant memory.
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+class BbpSplitter extends RecursiveTask<Long> {
+
+    // If the difference between the limits is within the threshold, then the
+    // computation is carried out directly, instead of dividing it into two.
+    private static final long THRESHOLD = 10_000;
+    // Below this modulus, the products of the residues fit in a signed long
+    private static final long SIGNED_LIMIT = 1L << 31;
+
+    private final long n;       // The power of 16
+    private final long start;   // The inclusive lower limit
+    private final long end;     // The exclusive upper limit
+
+    /**
+     * Creates a new BbpSplitter ready to be forked or invoked.
+     *
+     * @param n     The power of 16; must be less than 2<sup>29</sup>.
+     * @param start The inclusive lower limit.
+     * @param end   The exclusive upper limit.
+     */
+    BbpSplitter(final long n, final long start, final long end) {
+        this.n = n;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Returns 16<sup>exponent</sup> mod m by repeated squaring. As m is less
+     * than 2<sup>32</sup>, the products fit in an unsigned {@code long}; and
+     * below 2<sup>31</sup>, in a signed one, which is faster to reduce.
+     *
+     * @param exponent The non-negative exponent.
+     * @param m        The modulus.
+     * @return 16<sup>exponent</sup> mod m.
+     */
+    private static long powerOf16(long exponent, final long m) {
+        if (m >= SIGNED_LIMIT) {
+            long result = 1;
+            long base = 16;
+            while (exponent > 0) {
+                if ((exponent & 1) != 0) {
+                    result = Long.remainderUnsigned(result * base, m);
+                }
+                base = Long.remainderUnsigned(base * base, m);
+                exponent >>>= 1;
+            }
+            return result;
+        }
+        long result = 1 % m;
+        long base = 16 % m;
+        while (exponent > 0) {
+            if ((exponent & 1) != 0) {
+                result = result * base % m;
+            }
+            base = base * base % m;
+            exponent >>>= 1;
+        }
+        return result;
+    }
+
+    /**
+     * Returns r / m as a 64-bit binary fixed-point fraction, truncated.
+     *
+     * @param r The numerator, less than m.
+     * @param m The denominator, less than 2<sup>32</sup>.
+     * @return The value of 2<sup>64</sup> r / m, truncated.
+     */
+    static long fraction(final long r, final long m) {
+        long shifted = r << 32;
+        long high = Long.divideUnsigned(shifted, m);
+        long rest = Long.remainderUnsigned(shifted, m) << 32;
+        return (high << 32) | Long.divideUnsigned(rest, m);
+    }
+
+    /**
+     * The difference between the limits is within the threshold; compute the
+     * sum directly.
+     *
+     * @return The weighted sum for all values of k in the range: [start, end)
+     */
+    private long computeDirectly() {
+        long sum = 0;
+        for (long k = start; k < end; k++) {
+            long m = k << 3;
+            long exponent = n - k;
+            sum += fraction(powerOf16(exponent, m + 1), m + 1) << 2;
+            sum -= fraction(powerOf16(exponent, m + 4), m + 4) << 1;
+            sum -= fraction(powerOf16(exponent, m + 5), m + 5);
+            sum -= fraction(powerOf16(exponent, m + 6), m + 6);
+        }
+        return sum;
+    }
+
+    /**
+     * This is the method that delegates control to the direct computation
+     * method if the threshold requirement is met, or subdivides the task
+     * into two separate tasks and executes them in parallel.
+     *
+     * @return The weighted sum for all values of k in the range:
+     * [start, end), calculated in parallel.
+     */
+    @Override
+    protected Long compute() {
+        if (end - start <= THRESHOLD) {
+            return computeDirectly();
+        }
+        long mid = (start + end) >>> 1;
+        BbpSplitter left = new BbpSplitter(n, start, mid);
+        BbpSplitter right = new BbpSplitter(n, mid, end);
+        left.fork();
+        long rightResult = right.compute();
+        return left.join() + rightResult;
+    }
+}
@@ -51,6 +51,11 @@ import static cristatus.core.utils.Helper.expandContext;
 @SuppressWarnings("WeakerAccess")
 public class BigMath {
 
+    // The largest root that is seeded directly from a double estimate
+    private static final int SEED_BITS = 48;
+    // The size above which square roots are found by Karatsuba Square Root
+    private static final int KARATSUBA_SQRT_THRESHOLD = 2048;
+
     /**
      * Returns the hypotenuse of the right-angled triangle constructed with
      * the perpendicular sides of the given length.
@@ -193,6 +198,36 @@ public class BigMath {
         if (decimal.signum() < 0 && (n & 1) == 0) {
             throw new ArithmeticException("Even root of negative number is not defined.");
         }
+        // Perfect powers have an exact root; no padding is needed
+        BigDecimal exact = exactRoot(decimal, n);
+        if (exact != null) {
+            return exact;
+        }
+        return paddedRoot(decimal, n, context);
+    }
+
+    /**
+     * This method calculates the "nth-root" of the given number according
+     * to the given context, without first looking for an exact root. It is
+     * meant for numbers already known not to be perfect nth powers (say,
+     * from {@link #perfectRoot(BigInteger, int)}); the root of a perfect
+     * power is still correct, only padded with zeros.
+     *
+     * @param decimal The number whose root is required.
+     * @param n       The required base for the root.
+     * @param context The context for the calculations.
+     * @return The nth root of the given number according to the given
+     * context.
+     * @throws ArithmeticException If the value of n is even and the argument
+     *                             is negative.
+     */
+    public static BigDecimal paddedRoot(final BigDecimal decimal,
+                                        final int n,
+                                        final MathContext context)
+            throws ArithmeticException {
+        if (decimal.signum() < 0 && (n & 1) == 0) {
+            throw new ArithmeticException("Even root of negative number is not defined.");
+        }
         BigInteger value = decimal.unscaledValue();
         int newScale = decimal.scale();
         // Because the scale must be in the form of k*n, where k is an integer
@@ -202,33 +237,263 @@ public class BigMath {
         int precision = expandContext(context, 2).getPrecision() + adjustment;
         BigInteger padding = BigInteger.TEN.pow(precision * n + adjustment);
         value = value.multiply(padding);
-        BigInteger eps = BigInteger.ONE;
-        return new BigDecimal(newtonApproximate(value, eps, n), newScale + precision);
+        return new BigDecimal(rootFloor(value, n), newScale + precision);
+    }
+
+    /**
+     * Returns the exact nth root of the given decimal if it is a perfect nth
+     * power (after moving the decimal point by less than n places), or
+     * {@code null} otherwise.
+     *
+     * @param decimal The number whose root is required.
+     * @param n       Which root to find out?
+     * @return The exact nth root, or {@code null} if there is none.
+     */
+    private static BigDecimal exactRoot(final BigDecimal decimal,
+                                        final int n) {
+        BigInteger value = decimal.unscaledValue();
+        int scale = decimal.scale();
+        int excess = Math.floorMod(scale, n);
+        if (excess != 0) {
+            value = value.multiply(BigInteger.TEN.pow(n - excess));
+            scale += n - excess;
+        }
+        BigInteger root = perfectRoot(value, n);
+        return root == null ? null : new BigDecimal(root, scale / n);
+    }
+
+    /**
+     * Returns the integral square root of the given integer, along with the
+     * remainder. The result is an array {s, r} such that
+     * s<sup>2</sup> + r = value and 0 &le; r &le; 2s.
+     * <p>
+     * Large integers are handled with Zimmermann's recursive "Karatsuba
+     * Square Root", which costs about as much as one Karatsuba
+     * multiplication of the same size.
+     *
+     * @param value The integer whose square root is required.
+     * @return The array {square root, remainder}.
+     * @throws ArithmeticException If the argument is negative.
+     */
+    public static BigInteger[] isqrtRem(final BigInteger value)
+            throws ArithmeticException {
+        if (value.signum() < 0) {
+            throw new ArithmeticException("Even root of negative number is not defined.");
+        }
+        return sqrtRem(value);
+    }
+
+    /**
+     * Returns the integral nth root of the given integer, along with the
+     * remainder. The result is an array {s, r} such that
+     * s<sup>n</sup> + r = value, where s is truncated towards zero, and
+     * hence r has the same sign as the value.
+     *
+     * @param value The integer whose nth root is required.
+     * @param n     The required base for the root.
+     * @return The array {nth root, remainder}.
+     * @throws ArithmeticException If n is not positive, or if n is even and
+     *                             the argument is negative.
+     */
+    public static BigInteger[] iroot(final BigInteger value, final int n)
+            throws ArithmeticException {
+        if (n < 1) {
+            throw new ArithmeticException("Non-positive root.");
+        }
+        if (value.signum() < 0 && (n & 1) == 0) {
+            throw new ArithmeticException("Even root of negative number is not defined.");
+        }
+        if (n == 2) {
+            return sqrtRem(value);
+        }
+        BigInteger root = rootFloor(value, n);
+        return new BigInteger[]{root, value.subtract(root.pow(n))};
     }
 
     /**
-     * Performs the Newton-Raphson approximation for calculating roots.
+     * Checks if the given integer is the nth power of some integer. Cheap
+     * tests on the lowest bits reject most non-squares without computing any
+     * root.
      *
-     * @param raw The integer whose square root is to be approximated.
-     * @param eps The allowed tolerance.
+     * @param value The integer to check.
+     * @param n     The required power.
+     * @return {@code true} if the value is a perfect nth power.
+     * @throws ArithmeticException If n is not positive.
+     * @see #perfectRoot(BigInteger, int)
+     */
+    public static boolean isPerfectPower(final BigInteger value, final int n)
+            throws ArithmeticException {
+        return perfectRoot(value, n) != null;
+    }
+
+    /**
+     * Returns the exact nth root of the given integer if it is the nth power
+     * of some integer, or {@code null} otherwise. Cheap tests on the lowest
+     * bits reject most non-squares without computing any root; otherwise,
+     * the root is computed only once.
+     *
+     * @param value The integer whose exact root is required.
+     * @param n     The required power.
+     * @return The exact nth root, or {@code null} if there is none.
+     * @throws ArithmeticException If n is not positive.
+     */
+    public static BigInteger perfectRoot(final BigInteger value, final int n)
+            throws ArithmeticException {
+        if (n < 1) {
+            throw new ArithmeticException("Non-positive root.");
+        }
+        if (value.signum() == 0 || n == 1) {
+            return value;
+        }
+        if (value.signum() < 0) {
+            if ((n & 1) == 0) {
+                return null;
+            }
+            BigInteger root = perfectRoot(value.negate(), n);
+            return root == null ? null : root.negate();
+        }
+        // The power of 2 must be a multiple of n
+        int twos = value.getLowestSetBit();
+        if (twos % n != 0) {
+            return null;
+        }
+        // Odd squares are 1 modulo 8
+        if ((n & 1) == 0 && (value.shiftRight(twos).intValue() & 7) != 1) {
+            return null;
+        }
+        BigInteger[] rootRem = iroot(value, n);
+        return rootRem[1].signum() == 0 ? rootRem[0] : null;
+    }
+
+    /**
+     * Performs Zimmermann's "Karatsuba Square Root". The argument is split
+     * into four quarters of k bits each: a = a3 b^3 + a2 b^2 + a1 b + a0,
+     * where b = 2^k. The root of the upper half (a3 b + a2) is found
+     * recursively, and the lower half of the root follows from a single
+     * division by twice that root.
+     *
+     * @param value The non-negative integer whose square root is required.
+     * @return The array {square root, remainder}.
+     */
+    private static BigInteger[] sqrtRem(final BigInteger value) {
+        if (value.bitLength() <= KARATSUBA_SQRT_THRESHOLD) {
+            BigInteger root = rootFloor(value, 2);
+            return new BigInteger[]{root, value.subtract(root.multiply(root))};
+        }
+        // Normalise: the top quarter must have at least k - 1 bits
+        int k = (value.bitLength() + 3) >>> 2;
+        int z = ((k << 2) - value.bitLength()) >>> 1;
+        BigInteger a = value.shiftLeft(z << 1);
+        BigInteger mask = BigInteger.ONE.shiftLeft(k).subtract(BigInteger.ONE);
+
+        BigInteger[] upper = sqrtRem(a.shiftRight(k << 1));
+        BigInteger a1 = a.shiftRight(k).and(mask);
+        BigInteger a0 = a.and(mask);
+        BigInteger[] qu = upper[1].shiftLeft(k).or(a1)
+                .divideAndRemainder(upper[0].shiftLeft(1));
+        BigInteger q = qu[0];
+        BigInteger s = upper[0].shiftLeft(k).add(q);
+        BigInteger r = qu[1].shiftLeft(k).or(a0).subtract(q.multiply(q));
+        if (r.signum() < 0) {
+            r = r.add(s.shiftLeft(1)).subtract(BigInteger.ONE);
+            s = s.subtract(BigInteger.ONE);
+        }
+        if (z == 0) {
+            return new BigInteger[]{s, r};
+        }
+        // Undo the normalisation: s = 2 root + s0, so r = (r + s0 (4 root + 1)) / 4
+        BigInteger root = s.shiftRight(1);
+        if (s.testBit(0)) {
+            r = r.add(root.shiftLeft(2)).add(BigInteger.ONE);
+        }
+        return new BigInteger[]{root, r.shiftRight(2)};
+    }
+
+    /**
+     * Returns the largest integer whose nth power does not exceed the
+     * magnitude of the given integer, with the sign of the given integer.
+     * <p>
+     * The root of the leading half of the bits is found first (recursively),
+     * and a single Newton-Raphson step at the full precision then doubles the
+     * number of correct bits. The recursion bottoms out at a {@code double}
+     * estimate. The working precision thus doubles with every step, and the
+     * total cost is only a small multiple of that of the last step.
+     *
+     * @param raw The integer whose nth root is required.
+     * @param n   Which root to find out?
+     * @return The nth root of the integer, truncated towards zero.
+     */
+    private static BigInteger rootFloor(final BigInteger raw, final int n) {
+        if (raw.signum() < 0) {
+            return rootFloor(raw.negate(), n).negate();
+        }
+        if (raw.signum() == 0 || n == 1) {
+            return raw;
+        }
+        // The bit length of the root
+        int bits = (raw.bitLength() - 1) / n + 1;
+        if (bits <= SEED_BITS) {
+            return newtonFromAbove(raw, doubleSeed(raw, n), n);
+        }
+        // The guard bits make sure a single Newton step is within an ulp
+        int guard = 32 - Integer.numberOfLeadingZeros(n) + 2;
+        int half = (bits - guard) >>> 1;
+        // The root of the leading bits, plus one, is always an upper bound
+        BigInteger seed = rootFloor(raw.shiftRight(half * n), n)
+                .add(BigInteger.ONE)
+                .shiftLeft(half);
+        return newtonFromAbove(raw, seed, n);
+    }
+
+    /**
+     * Returns an upper bound for the nth root of the given positive integer,
+     * whose root has no more than {@link #SEED_BITS} bits, with the help of
+     * {@link Math#pow(double, double)}.
+     *
+     * @param raw The integer whose nth root is to be estimated.
      * @param n   Which root to find out?
-     * @return The approximation for the nth root of the integer.
+     * @return An integer strictly greater than the nth root.
      */
-    private static BigInteger newtonApproximate(final BigInteger raw,
-                                                final BigInteger eps,
-                                                final int n) {
-        int nM1 = n - 1;
+    private static BigInteger doubleSeed(final BigInteger raw, final int n) {
+        // Keep 53 significant bits, and drop whole nth powers of 2 only
+        int shift = Math.max(0, raw.bitLength() - 53);
+        shift = (shift + n - 1) / n;
+        double scaled = raw.shiftRight(shift * n).doubleValue();
+        double estimate = Math.scalb(Math.pow(scaled, 1.0 / n), shift);
+        BigInteger seed = BigInteger.valueOf((long) Math.ceil(estimate) + 1);
+        // Double arithmetic is not exact; make sure it is an upper bound
+        while (seed.pow(n).compareTo(raw) <= 0) {
+            seed = seed.shiftLeft(1);
+        }
+        return seed;
+    }
+
+    /**
+     * Performs the integral Newton-Raphson iteration for the nth root,
+     * starting from an upper bound. The sequence decreases strictly until it
+     * reaches the floor of the root, so the iteration stops as soon as it
+     * does not decrease any more. Starting close to the root, this takes one
+     * or two steps.
+     *
+     * @param raw   The positive integer whose nth root is to be found.
+     * @param guess An integer not less than the nth root of raw.
+     * @param n     Which root to find out?
+     * @return The largest integer whose nth power does not exceed raw.
+     */
+    private static BigInteger newtonFromAbove(final BigInteger raw,
+                                              BigInteger guess,
+                                              final int n) {
+        BigInteger nM1 = BigInteger.valueOf(n - 1);
         BigInteger N = BigInteger.valueOf(n);
-        // Make an initial guess equal to 2^(bit length of "raw")
-        BigInteger guess = BigInteger.ONE.shiftLeft(raw.bitLength() / n);
-        // Delta is a measure of the deviation
-        BigInteger delta;
-        do {
-            BigInteger powered = guess.pow(nM1);
-            delta = raw.divide(powered).subtract(guess).divide(N);
-            guess = guess.add(delta);
-        } while (delta.abs().compareTo(eps) > 0);
-        return guess;
+        while (true) {
+            BigInteger next = guess.multiply(nM1)
+                    .add(raw.divide(guess.pow(n - 1)))
+                    .divide(N);
+            if (next.compareTo(guess) >= 0) {
+                return guess;
+            }
+            guess = next;
+        }
     }
 
 }
@@ -0,0 +1,143 @@
+/*
+ * The MIT License (MIT)
+ * ---------------------
+ *
+ * Copyright (c) 2015-2016 Cristatus Solutions
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+ * NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR
+ * THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cristatus.core.utils;
+
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+/**
+ * The binary counterpart of {@link MathContext}. It specifies a working
+ * precision in bits rather than in decimal digits.
+ * <p>
+ * Truncating a number to a number of bits is just a shift, whereas
+ * rounding it to a number of decimal digits involves dividing it by a
+ * power of ten. Internal calculations (like series expansions) should
+ * therefore carry out their intermediate truncations with a BinaryContext,
+ * and round to a {@link MathContext} only once, at the end.
+ * <p>
+ * A precision of 0 bits signifies unlimited precision, just like with
+ * {@link MathContext#UNLIMITED}.
+ * <p>
+ * All instances of BinaryContext are <i>immutable</i>.
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ * @see cristatus.core.Rational#dropTo(BinaryContext)
+ */
+@SuppressWarnings("WeakerAccess")
+public final class BinaryContext {
+
+    /**
+     * The BinaryContext with unlimited precision.
+     */
+    public static final BinaryContext UNLIMITED = new BinaryContext(0);
+
+    // The number of bits in one decimal digit: log2(10)
+    private static final double BITS_PER_DIGIT = Math.log(10) / Math.log(2);
+
+    private final int bits;
+
+    /**
+     * Creates a new BinaryContext with the given precision.
+     *
+     * @param bits The precision in bits; 0 for unlimited precision.
+     * @throws IllegalArgumentException If the precision is negative.
+     */
+    public BinaryContext(final int bits) throws IllegalArgumentException {
+        if (bits < 0)
+            throw new IllegalArgumentException("Negative precision.");
+        this.bits = bits;
+    }
+
+    /**
+     * Returns a BinaryContext that is at least as precise as the given
+     * {@link MathContext}.
+     *
+     * @param context The decimal context to convert.
+     * @return The equivalent BinaryContext.
+     */
+    public static BinaryContext from(final MathContext context) {
+        return new BinaryContext(bitsFor(context.getPrecision()));
+    }
+
+    /**
+     * Returns the number of bits needed to hold the given number of decimal
+     * digits.
+     *
+     * @param digits The number of decimal digits.
+     * @return The required number of bits.
+     */
+    public static int bitsFor(final int digits) {
+        return (int) Math.ceil(digits * BITS_PER_DIGIT);
+    }
+
+    /**
+     * Returns the precision of this context in bits.
+     *
+     * @return The precision of this context in bits; 0 means unlimited.
+     */
+    public int getBits() {
+        return bits;
+    }
+
+    /**
+     * Returns a new BinaryContext with the given number of guard bits added.
+     * Unlimited contexts stay unlimited.
+     *
+     * @param delta The number of guard bits to add.
+     * @return The expanded BinaryContext.
+     */
+    public BinaryContext expand(final int delta) {
+        return bits == 0 ? this : new BinaryContext(bits + delta);
+    }
+
+    /**
+     * Returns the smallest {@link MathContext} that is at least as precise as
+     * this one. This is meant for the conversion at the API boundary.
+     *
+     * @return The equivalent {@link MathContext}.
+     */
+    public MathContext toMathContext() {
+        int digits = (int) Math.ceil(bits / BITS_PER_DIGIT);
+        return new MathContext(digits, RoundingMode.HALF_UP);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof BinaryContext
+                && ((BinaryContext) other).bits == bits;
+    }
+
+    @Override
+    public int hashCode() {
+        return bits;
+    }
+
+    @Override
+    public String toString() {
+        return "bits=" + bits;
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * The MIT License (MIT)
+ * ---------------------
+ *
+ * Copyright (c) 2015-2016 Cristatus Solutions
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+ * NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR
+ * THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cristatus.core.utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * A directory in which long computations save their partial results, so
+ * that they can be resumed after a crash or a restart instead of being
+ * started all over again.
+ * <p>
+ * The binary splitting of a {@link HypergeometricSeries} (and thus the
+ * calculation of &pi; with {@link PiGenerator#obtainDecimal(java.math.MathContext,
+ * Checkpoint)}) saves the P, Q and T values of every large completed range
+ * of terms. Likewise, a factorial calculated with
+ * {@link Factorial#of(BigInteger, Checkpoint)} saves the odd parts of the
+ * factorials in its recursion, and the products of every large range of
+ * factors of the swinging factorials. A computation repeated with the same
+ * checkpoint loads the parts that were completed, and calculates only the
+ * rest. The files of the two halves of a range (and the previous level of
+ * a factorial) are deleted once the range itself is saved, so the space
+ * used stays close to the size of the final result.
+ * <p>
+ * Every file holds a list of {@link BigInteger}s in a compact binary format
+ * followed by a CRC-32 checksum, and is written in full (and forced to the
+ * storage device) before being moved into place atomically. A file that is
+ * incomplete or fails the checksum is ignored and deleted. The files are
+ * kept after the computation finishes, so that it can be repeated cheaply;
+ * {@link #clear()} removes them.
+ * <p>
+ * This class is thread-safe, as different ranges are saved to different
+ * files. A directory should not be shared by unrelated processes.
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+@SuppressWarnings("WeakerAccess")
+public final class Checkpoint {
+
+    // The magic number at the start of every file: "CRK1"
+    private static final int MAGIC = 0x43524B31;
+    // The suffix of the names of the files
+    private static final String SUFFIX = ".chk";
+    // The suffix of the names of the files being written
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final Path directory;
+
+    /**
+     * Creates a new Checkpoint in the given directory, creating the
+     * directory if it does not exist.
+     *
+     * @param directory The directory to save the partial results in.
+     * @throws IllegalArgumentException If the directory is {@code null}.
+     * @throws UncheckedIOException     If the directory cannot be created.
+     */
+    public Checkpoint(final Path directory)
+            throws IllegalArgumentException, UncheckedIOException {
+        if (directory == null)
+            throw new IllegalArgumentException("Null directory.");
+        try {
+            this.directory = Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the directory in which the partial results are saved.
+     *
+     * @return The directory of this checkpoint.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Deletes all the partial results saved in the directory.
+     *
+     * @throws UncheckedIOException If a file cannot be deleted.
+     */
+    public void clear() throws UncheckedIOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(
+                directory, "*{" + SUFFIX + "," + TEMPORARY_SUFFIX + "}"
+        )) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Saves the given values under the given name, replacing any values
+     * saved under it before.
+     *
+     * @param name   The name of the values.
+     * @param values The values to save.
+     * @throws UncheckedIOException If the values cannot be written.
+     */
+    void store(final String name, final BigInteger... values)
+            throws UncheckedIOException {
+        ByteBuffer[] buffers = new ByteBuffer[values.length + 2];
+        ByteBuffer header = ByteBuffer.allocate(8 + 4 * values.length);
+        header.putInt(MAGIC).putInt(values.length);
+        for (int i = 0; i < values.length; i++) {
+            byte[] bytes = values[i].toByteArray();
+            header.putInt(bytes.length);
+            buffers[i + 1] = ByteBuffer.wrap(bytes);
+        }
+        header.flip();
+        buffers[0] = header;
+        CRC32 crc = new CRC32();
+        for (int i = 0; i <= values.length; i++) {
+            crc.update(buffers[i].duplicate());
+        }
+        buffers[values.length + 1] = (ByteBuffer) ByteBuffer.allocate(8)
+                .putLong(crc.getValue()).flip();
+
+        Path file = directory.resolve(name + SUFFIX);
+        Path temporary = directory.resolve(name + TEMPORARY_SUFFIX);
+        try {
+            try (FileChannel channel = FileChannel.open(temporary,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE)) {
+                while (buffers[values.length + 1].hasRemaining()) {
+                    channel.write(buffers);
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Loads the values saved under the given name. If the file is damaged,
+     * it is deleted.
+     *
+     * @param name  The name of the values.
+     * @param count The number of values expected.
+     * @return The values saved, or {@code null} if there are none, or if
+     * they are damaged.
+     * @throws UncheckedIOException If the file cannot be read.
+     */
+    BigInteger[] load(final String name, final int count)
+            throws UncheckedIOException {
+        Path file = directory.resolve(name + SUFFIX);
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                return discard(file);
+            }
+            buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Keep reading until the end
+            }
+            buffer.flip();
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        // The header, the lengths and the checksum must be present
+        int minimum = 8 + 4 * count + 8;
+        if (buffer.remaining() < minimum
+                || buffer.getInt(0) != MAGIC || buffer.getInt(4) != count) {
+            return discard(file);
+        }
+        ByteBuffer data = buffer.duplicate();
+        data.limit(buffer.limit() - 8);
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        if (crc.getValue() != buffer.getLong(buffer.limit() - 8)) {
+            return discard(file);
+        }
+        BigInteger[] values = new BigInteger[count];
+        int offset = 8 + 4 * count;
+        for (int i = 0; i < count; i++) {
+            int length = buffer.getInt(8 + 4 * i);
+            if (length <= 0 || length > buffer.limit() - 8 - offset) {
+                return discard(file);
+            }
+            byte[] bytes = new byte[length];
+            buffer.position(offset);
+            buffer.get(bytes);
+            values[i] = new BigInteger(bytes);
+            offset += length;
+        }
+        return offset == buffer.limit() - 8 ? values : discard(file);
+    }
+
+    /**
+     * Deletes the values saved under the given name, if any.
+     *
+     * @param name The name of the values.
+     * @throws UncheckedIOException If the file cannot be deleted.
+     */
+    void delete(final String name) throws UncheckedIOException {
+        try {
+            Files.deleteIfExists(directory.resolve(name + SUFFIX));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Deletes a damaged file.
+     *
+     * @param file The file to delete.
+     * @return {@code null}, as there are no values to load.
+     * @throws UncheckedIOException If the file cannot be deleted.
+     */
+    private static BigInteger[] discard(final Path file)
+            throws UncheckedIOException {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return null;
+    }
+}
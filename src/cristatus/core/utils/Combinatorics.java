@@ -0,0 +1,325 @@
+/*
+ * The MIT License (MIT)
+ * ---------------------
+ *
+ * Copyright (c) 2015-2016 Cristatus Solutions
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+ * NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR
+ * THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cristatus.core.utils;
+
+import java.math.BigInteger;
+
+/**
+ * This class provides the common combinatorial functions: binomial and
+ * multinomial coefficients, and falling, rising and double factorials.
+ * <p>
+ * Instead of dividing huge factorials by one another, the results are
+ * built directly from their prime factorisations. The exponent of a prime
+ * p in n! is given by Legendre's formula:
+ * <pre>
+ *     v<sub>p</sub>(n!) = &lfloor;n/p&rfloor; + &lfloor;n/p<sup>2</sup>&rfloor; + ...
+ * </pre>
+ * so the exponent of every prime in a quotient of factorials is known
+ * without computing any of them. The prime powers are multiplied with a
+ * balanced {@link ProductTree} on the pool of the {@link MathExecutor}, and
+ * the factors of 2 are applied at the end with a single shift.
+ * <p>
+ * When the result is much smaller than the factorials involved (such as
+ * C(n, k) for a small k), the primes up to n are not worth finding, and
+ * the few factors needed are multiplied directly instead.
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class Combinatorics {
+
+    private static final String NEGATIVE_MESSAGE =
+            "The argument must be a non-negative integer.";
+
+    // If k < n / SMALL_RATIO, the product of k factors is used directly
+    private static final int SMALL_RATIO = 32;
+
+    /**
+     * This method returns the binomial coefficient C(n, k), the number of
+     * ways of choosing k out of n objects. It is 0 if k is negative or
+     * greater than n.
+     *
+     * @param n The non-negative number of objects.
+     * @param k The number of objects chosen.
+     * @return The binomial coefficient C(n, k).
+     * @throws ArithmeticException If n is negative.
+     */
+    public static BigInteger binomial(final int n, final int k)
+            throws ArithmeticException {
+        if (n < 0) {
+            throw new ArithmeticException(NEGATIVE_MESSAGE);
+        }
+        if (k < 0 || k > n) {
+            return BigInteger.ZERO;
+        }
+        int small = Math.min(k, n - k);
+        if (small < n / SMALL_RATIO) {
+            return product(n - small, n)
+                    .divide(Factorial.verified(BigInteger.valueOf(small)));
+        }
+        int[] primes = PrimeSieve.oddPrimesUpto(n);
+        int[] exponents = new int[primes.length];
+        for (int i = 0; i < primes.length; i++) {
+            int p = primes[i];
+            exponents[i] = legendre(n, p) - legendre(k, p) - legendre(n - k, p);
+        }
+        return fromExponents(primes, exponents,
+                twos(n) - twos(k) - twos(n - k));
+    }
+
+    /**
+     * This method returns the multinomial coefficient (k<sub>1</sub> + k<sub>2</sub>
+     * + ... + k<sub>m</sub>)! / (k<sub>1</sub>! k<sub>2</sub>! ... k<sub>m</sub>!),
+     * the number of ways of dividing n = k<sub>1</sub> + ... + k<sub>m</sub>
+     * objects into groups of the given sizes.
+     *
+     * @param k The non-negative sizes of the groups.
+     * @return The multinomial coefficient.
+     * @throws ArithmeticException If any of the sizes is negative, or if
+     *                             their sum exceeds the range of an
+     *                             {@code int}.
+     */
+    public static BigInteger multinomial(final int... k)
+            throws ArithmeticException {
+        long sum = 0;
+        int largest = 0;
+        for (int size : k) {
+            if (size < 0) {
+                throw new ArithmeticException(NEGATIVE_MESSAGE);
+            }
+            sum += size;
+            largest = Math.max(largest, size);
+        }
+        if (sum > Integer.MAX_VALUE) {
+            throw new ArithmeticException("The sum of the sizes is too large.");
+        }
+        int n = (int) sum;
+        if (n - largest < n / SMALL_RATIO) {
+            // n! / largest! is the product of only a few factors
+            BigInteger result = product(largest, n);
+            boolean skipped = false;
+            for (int size : k) {
+                if (size == largest && !skipped) {
+                    skipped = true;
+                } else if (size > 1) {
+                    result = result.divide(Factorial.verified(BigInteger.valueOf(size)));
+                }
+            }
+            return result;
+        }
+        int[] primes = PrimeSieve.oddPrimesUpto(n);
+        int[] exponents = new int[primes.length];
+        for (int i = 0; i < primes.length; i++) {
+            int p = primes[i];
+            int exponent = legendre(n, p);
+            for (int size : k) {
+                if (size >= p) exponent -= legendre(size, p);
+            }
+            exponents[i] = exponent;
+        }
+        int twos = twos(n);
+        for (int size : k) {
+            twos -= twos(size);
+        }
+        return fromExponents(primes, exponents, twos);
+    }
+
+    /**
+     * This method returns the falling factorial of n with k factors:
+     * <pre>
+     *     n (n - 1) (n - 2) ... (n - k + 1)
+     * </pre>
+     * which is n! / (n - k)! for 0 &le; k &le; n, the number of ordered
+     * selections of k out of n objects. Negative values of n are allowed.
+     *
+     * @param n The integer to start from.
+     * @param k The non-negative number of factors.
+     * @return The falling factorial of n with k factors.
+     * @throws ArithmeticException If k is negative, or if the factors
+     *                             exceed the range of an {@code int}.
+     */
+    public static BigInteger fallingFactorial(final int n, final int k)
+            throws ArithmeticException {
+        if (k < 0) {
+            throw new ArithmeticException(NEGATIVE_MESSAGE);
+        }
+        if (n < 0) {
+            // n (n - 1) ... (n - k + 1) = (-1)^k (-n) (-n + 1) ... (-n + k - 1)
+            long top = (long) k - n - 1;
+            if (top > Integer.MAX_VALUE) {
+                throw new ArithmeticException("The factors are too large.");
+            }
+            BigInteger result = fallingFactorial((int) top, k);
+            return (k & 1) == 0 ? result : result.negate();
+        }
+        if (k > n) {
+            // One of the factors is zero
+            return BigInteger.ZERO;
+        }
+        if (k < n - k) {
+            return product(n - k, n);
+        }
+        int[] primes = PrimeSieve.oddPrimesUpto(n);
+        int[] exponents = new int[primes.length];
+        for (int i = 0; i < primes.length; i++) {
+            int p = primes[i];
+            exponents[i] = legendre(n, p) - legendre(n - k, p);
+        }
+        return fromExponents(primes, exponents, twos(n) - twos(n - k));
+    }
+
+    /**
+     * This method returns the rising factorial of x with k factors, also
+     * known as the Pochhammer symbol (x)<sup>(k)</sup>:
+     * <pre>
+     *     x (x + 1) (x + 2) ... (x + k - 1)
+     * </pre>
+     * which is (x + k - 1)! / (x - 1)! for x &ge; 1. Negative values of x
+     * are allowed.
+     *
+     * @param x The integer to start from.
+     * @param k The non-negative number of factors.
+     * @return The rising factorial of x with k factors.
+     * @throws ArithmeticException If k is negative, or if the factors
+     *                             exceed the range of an {@code int}.
+     */
+    public static BigInteger risingFactorial(final int x, final int k)
+            throws ArithmeticException {
+        if (k < 0) {
+            throw new ArithmeticException(NEGATIVE_MESSAGE);
+        }
+        // x (x + 1) ... (x + k - 1) is the falling factorial of x + k - 1
+        long top = (long) x + k - 1;
+        if (top > Integer.MAX_VALUE) {
+            throw new ArithmeticException("The factors are too large.");
+        }
+        if (k == 0) {
+            return BigInteger.ONE;
+        }
+        return fallingFactorial((int) top, k);
+    }
+
+    /**
+     * This method returns the double factorial of n, the product of all the
+     * positive integers up to n that have the same parity as n:
+     * <pre>
+     *     n!! = n (n - 2) (n - 4) ...
+     * </pre>
+     * By convention, 0!! = (-1)!! = 1.
+     *
+     * @param n The integer, at least -1.
+     * @return The double factorial of n.
+     * @throws ArithmeticException If n is less than -1.
+     */
+    public static BigInteger doubleFactorial(final int n)
+            throws ArithmeticException {
+        if (n < -1) {
+            throw new ArithmeticException("The argument must be at least -1.");
+        }
+        if (n <= 1) {
+            return BigInteger.ONE;
+        }
+        int half = n >>> 1;
+        if ((n & 1) == 0) {
+            // (2m)!! = 2^m m!
+            return Factorial.verified(BigInteger.valueOf(half)).shiftLeft(half);
+        }
+        // (2m + 1)!! = (2m + 1)! / (2^m m!), which is odd
+        int[] primes = PrimeSieve.oddPrimesUpto(n);
+        int[] exponents = new int[primes.length];
+        for (int i = 0; i < primes.length; i++) {
+            int p = primes[i];
+            exponents[i] = legendre(n, p) - legendre(half, p);
+        }
+        return fromExponents(primes, exponents, 0);
+    }
+
+    /**
+     * Returns the exponent of the odd prime p in n!, by Legendre's formula.
+     *
+     * @param n The non-negative integer.
+     * @param p The odd prime.
+     * @return The exponent of p in n!.
+     */
+    private static int legendre(int n, final int p) {
+        int exponent = 0;
+        while ((n /= p) > 0) {
+            exponent += n;
+        }
+        return exponent;
+    }
+
+    /**
+     * Returns the exponent of 2 in n!, which is n minus the number of ones
+     * in the binary representation of n.
+     *
+     * @param n The non-negative integer.
+     * @return The exponent of 2 in n!.
+     */
+    private static int twos(final int n) {
+        return n - Integer.bitCount(n);
+    }
+
+    /**
+     * Multiplies the powers of the given odd primes with a balanced product
+     * tree, and applies the power of 2.
+     *
+     * @param primes    The odd primes.
+     * @param exponents Their (non-negative) exponents.
+     * @param twos      The exponent of 2.
+     * @return The product of the prime powers.
+     */
+    private static BigInteger fromExponents(final int[] primes,
+                                            final int[] exponents,
+                                            final int twos) {
+        ProductTree.Factors factors = new ProductTree.Factors();
+        for (int i = 0; i < primes.length; i++) {
+            for (int j = 0; j < exponents[i]; j++) {
+                factors.add(primes[i]);
+            }
+        }
+        return MathExecutor.invoke(factors.tree()).shiftLeft(twos);
+    }
+
+    /**
+     * Returns the product of the integers in the range (from, to] with a
+     * balanced product tree.
+     *
+     * @param from The non-negative exclusive lower limit.
+     * @param to   The inclusive upper limit.
+     * @return The product of the integers from + 1 to to.
+     */
+    private static BigInteger product(final int from, final int to) {
+        if (from == 0 && to >= 0) {
+            return Factorial.verified(BigInteger.valueOf(to));
+        }
+        ProductTree.Factors factors = new ProductTree.Factors();
+        for (long i = from + 1L; i <= to; i++) {
+            factors.add(i);
+        }
+        return MathExecutor.invoke(factors.tree());
+    }
+}
@@ -0,0 +1,352 @@
+/*
+ * The MIT License (MIT)
+ * ---------------------
+ *
+ * Copyright (c) 2015-2016 Cristatus Solutions
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+ * NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR
+ * THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cristatus.core.utils;
+
+import cristatus.core.Rational;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * A thread-safe cache for the value of a mathematical constant, such as
+ * &pi;, which is expensive to generate.
+ * <p>
+ * The cache is <i>monotonic</i>: it keeps only the most precise value
+ * generated so far, and answers every request for the same or a lower
+ * precision by rounding that value, irrespective of the
+ * {@link RoundingMode} asked for. The values are always generated with a
+ * few guard digits and {@link RoundingMode#HALF_EVEN}. A new value is
+ * generated only when a higher precision is requested, or when the guard
+ * digits are too close to a rounding boundary to round correctly.
+ * Concurrent requests share a single in-flight generation whenever it is
+ * precise enough for them.
+ * <p>
+ * The memory used by all the caches together is bounded by a (configurable)
+ * limit. When it is exceeded, the values of the least recently used caches
+ * are evicted, to be generated again when needed. A value larger than the
+ * limit by itself is not cached.
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+@SuppressWarnings("WeakerAccess")
+public final class ConstantCache {
+
+    /**
+     * The default limit on the memory used by all the caches: 64 MiB.
+     */
+    public static final long DEFAULT_MEMORY_LIMIT = 64L << 20;
+
+    // The number of extra digits requested from the generator, so that the
+    // cached value can be rounded correctly to the requested precision.
+    private static final int GUARD_DIGITS = 5;
+    // The number of times the value is generated again for a rounding that
+    // is too close to call
+    private static final int MAX_ATTEMPTS = 3;
+
+    // The global memory accounting. Guarded by the lock on the class.
+    private static long memoryLimit = DEFAULT_MEMORY_LIMIT;
+    private static long memoryUsed = 0;
+    // The caches holding a value, with their sizes; least recently used first
+    private static final Map<ConstantCache, Long> USAGE
+            = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * A value along with the precision it is accurate to.
+     */
+    private static final class Entry {
+        final int precision;
+        final BigDecimal value;
+
+        Entry(final int precision, final BigDecimal value) {
+            this.precision = precision;
+            this.value = value;
+        }
+    }
+
+    private final Function<MathContext, BigDecimal> generator;
+
+    // The most precise value so far; volatile, as it is read without locking.
+    // It is only ever written while holding the lock on the class.
+    private volatile Entry best;
+
+    // The generation in progress, if any. Guarded by the lock on this.
+    private CompletableFuture<Entry> pending;
+    private int pendingPrecision;
+
+    /**
+     * Creates a new, empty cache for the constant produced by the given
+     * generator. The generator must return a value accurate to the precision
+     * of the {@link MathContext} passed to it.
+     *
+     * @param generator The function that generates the constant.
+     * @throws IllegalArgumentException If the generator is {@code null}.
+     */
+    public ConstantCache(final Function<MathContext, BigDecimal> generator)
+            throws IllegalArgumentException {
+        if (generator == null)
+            throw new IllegalArgumentException("Null generator.");
+        this.generator = generator;
+    }
+
+    /**
+     * Returns the constant rounded according to the given context,
+     * generating it first if no value of sufficient precision is cached.
+     * <p>
+     * The cached value carries a few guard digits, and is trusted to within
+     * one unit in its last place. If the constant could round either way
+     * within that error (when the guard digits are close to a boundary of
+     * the rounding mode, such as ...49999 for {@link RoundingMode#HALF_UP}),
+     * the value is generated again with more digits.
+     *
+     * @param context The precision and rounding mode required.
+     * @return The constant rounded according to the given context.
+     * @throws ArithmeticException If the context has unlimited precision.
+     */
+    public BigDecimal getDecimal(final MathContext context)
+            throws ArithmeticException {
+        int precision = context.getPrecision();
+        if (precision == 0) {
+            throw new ArithmeticException("A constant needs a finite precision.");
+        }
+        int needed = precision;
+        for (int attempt = 0; ; attempt++) {
+            Entry entry = obtain(needed);
+            BigDecimal value = entry.value;
+            BigDecimal ulp = value.ulp();
+            BigDecimal low = value.subtract(ulp).round(context);
+            BigDecimal high = value.add(ulp).round(context);
+            if (low.compareTo(high) == 0 || attempt == MAX_ATTEMPTS) {
+                return value.round(context);
+            }
+            // Too close to a rounding boundary: generate more digits
+            needed = (entry.precision << 1) + GUARD_DIGITS;
+        }
+    }
+
+    /**
+     * Returns a cached or newly generated entry with at least the given
+     * precision. Concurrent requests share a single generation whenever it
+     * is precise enough for them.
+     *
+     * @param precision The precision required.
+     * @return An entry with at least the given precision.
+     */
+    private Entry obtain(final int precision) {
+        while (true) {
+            Entry entry = best;
+            if (entry != null && entry.precision >= precision) {
+                touch();
+                return entry;
+            }
+            CompletableFuture<Entry> future;
+            boolean generate = false;
+            synchronized (this) {
+                future = pending;
+                if (future == null || pendingPrecision < precision) {
+                    future = new CompletableFuture<>();
+                    pending = future;
+                    pendingPrecision = precision;
+                    generate = true;
+                }
+            }
+            if (!generate) {
+                // Wait for the generation in progress, then look again
+                try {
+                    entry = future.join();
+                } catch (CompletionException e) {
+                    // Rethrow what the generator threw
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw e;
+                }
+                if (entry.precision >= precision) {
+                    return entry;
+                }
+                continue;
+            }
+            try {
+                // The same rounding mode for every caller
+                MathContext work = new MathContext(
+                        precision + GUARD_DIGITS, RoundingMode.HALF_EVEN
+                );
+                entry = new Entry(precision, generator.apply(work));
+            } catch (RuntimeException | Error e) {
+                finish(future, null);
+                future.completeExceptionally(e);
+                throw e;
+            }
+            finish(future, entry);
+            future.complete(entry);
+            return entry;
+        }
+    }
+
+    /**
+     * Returns the constant rounded according to the given context as a
+     * {@link Rational}.
+     *
+     * @param context The precision and rounding mode required.
+     * @return The constant rounded according to the given context.
+     * @see #getDecimal(MathContext)
+     */
+    public Rational get(final MathContext context) {
+        return Rational.valueOf(getDecimal(context));
+    }
+
+    /**
+     * Stores the newly generated entry if it improves upon the cached one,
+     * and clears the pending generation if it is the given one.
+     *
+     * @param future The future of the finished generation.
+     * @param entry  The generated entry, or {@code null} on failure.
+     */
+    private void finish(final CompletableFuture<Entry> future,
+                        final Entry entry) {
+        synchronized (this) {
+            if (pending == future) {
+                pending = null;
+            }
+        }
+        if (entry == null) {
+            return;
+        }
+        // Roughly the size of the unscaled value, in bytes
+        long bytes = entry.value.unscaledValue().bitLength() >>> 3;
+        synchronized (ConstantCache.class) {
+            // A value larger than the limit is not cached at all, rather
+            // than evicting every other value, and then itself
+            if (bytes > memoryLimit) {
+                return;
+            }
+            Entry current = best;
+            if (current == null || current.precision < entry.precision) {
+                best = entry;
+                account(bytes);
+            }
+        }
+    }
+
+    /**
+     * Removes the cached value, if any.
+     */
+    public void clear() {
+        synchronized (ConstantCache.class) {
+            best = null;
+            account(0);
+        }
+    }
+
+    /**
+     * Returns the precision of the cached value, or 0 if there is none.
+     *
+     * @return The precision of the cached value.
+     */
+    public int getCachedPrecision() {
+        Entry entry = best;
+        return entry == null ? 0 : entry.precision;
+    }
+
+    // Global memory management
+
+    /**
+     * Sets the limit on the memory used by all the caches together, evicting
+     * values right away if needed.
+     *
+     * @param bytes The new limit, in bytes.
+     * @throws IllegalArgumentException If the limit is negative.
+     */
+    public static synchronized void setMemoryLimit(final long bytes)
+            throws IllegalArgumentException {
+        if (bytes < 0)
+            throw new IllegalArgumentException("Negative memory limit.");
+        memoryLimit = bytes;
+        evict();
+    }
+
+    /**
+     * Returns the limit on the memory used by all the caches together.
+     *
+     * @return The limit, in bytes.
+     */
+    public static synchronized long getMemoryLimit() {
+        return memoryLimit;
+    }
+
+    /**
+     * Returns the (approximate) memory used by all the caches together.
+     *
+     * @return The memory used, in bytes.
+     */
+    public static synchronized long getMemoryUsed() {
+        return memoryUsed;
+    }
+
+    private void touch() {
+        synchronized (ConstantCache.class) {
+            USAGE.get(this);
+        }
+    }
+
+    /**
+     * Records the new size of the value of this cache and evicts values if
+     * needed. Must be called while holding the lock on the class.
+     *
+     * @param bytes The new size, in bytes.
+     */
+    private void account(final long bytes) {
+        Long old = bytes == 0 ? USAGE.remove(this) : USAGE.put(this, bytes);
+        memoryUsed += bytes - (old == null ? 0 : old);
+        evict();
+    }
+
+    /**
+     * Evicts the least recently used values until the memory used is within
+     * the limit. Must be called while holding the lock on the class.
+     */
+    private static void evict() {
+        Iterator<Map.Entry<ConstantCache, Long>> iterator
+                = USAGE.entrySet().iterator();
+        while (memoryUsed > memoryLimit && iterator.hasNext()) {
+            Map.Entry<ConstantCache, Long> eldest = iterator.next();
+            iterator.remove();
+            memoryUsed -= eldest.getValue();
+            eldest.getKey().best = null;
+        }
+    }
+}
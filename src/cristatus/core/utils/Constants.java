@@ -0,0 +1,394 @@
+/*
+ * The MIT License (MIT)
+ * ---------------------
+ *
+ * Copyright (c) 2015-2016 Cristatus Solutions
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+ * NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR
+ * THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cristatus.core.utils;
+
+import cristatus.core.Rational;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+
+/**
+ * This class acts as the access point for the mathematical constants other
+ * than &pi; (which has its own {@link PiGenerator}): e, ln 2, ln 10,
+ * &radic;2, Euler's constant &gamma;, Catalan's constant G and &zeta;(3).
+ * <p>
+ * Each constant has a {@link ConstantCache} of its own, so the most precise
+ * value generated so far is kept, and all requests for lower precisions are
+ * served by rounding it. The series are summed by binary splitting, in
+ * parallel, on the pool of the {@link MathExecutor}:
+ * <ul>
+ * <li>e = &sum; 1/k!</li>
+ * <li>ln 2 = 18 atanh(1/26) - 2 atanh(1/4801) + 8 atanh(1/8749)</li>
+ * <li>ln 10 = 3 ln 2 + 2 atanh(1/9)</li>
+ * <li>&gamma; by the formula of Brent and McMillan, see
+ * {@link EulerGammaSplitter}</li>
+ * <li>G = 3/8 &sum; (k!)<sup>2</sup> / ((2k)! (2k + 1)<sup>2</sup>) + &pi;/8 ln(2 + &radic;3)</li>
+ * <li>&zeta;(3) = 1/64 &sum; (-1)<sup>k</sup> (205k<sup>2</sup> + 250k + 77) (k!)<sup>10</sup> / ((2k + 1)!)<sup>5</sup></li>
+ * </ul>
+ * The square root of 2 is found with Newton's method instead, which is
+ * faster than any series for it.
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class Constants {
+
+    // The number of guard digits for the final operations
+    private static final int GUARD_DIGITS = 10;
+    // The ratio of the number of terms to n in the Brent-McMillan formula:
+    // the solution of x (ln x - 1) = 1
+    private static final double GAMMA_TERMS_PER_N = 3.5912;
+
+    // Frequently used constants
+    private static final BigInteger THREE = BigInteger.valueOf(3);
+    private static final BigDecimal EIGHT = BigDecimal.valueOf(8);
+
+    // e: a(k) = 1, p(k) = 1, q(k) = k
+    private static final HypergeometricSeries E_SERIES
+            = new HypergeometricSeries(
+            HypergeometricSeries.polynomial(1),
+            HypergeometricSeries.polynomial(1),
+            HypergeometricSeries.polynomial(0, 1)
+    );
+    // 8/3 (G - pi/8 ln(2 + sqrt(3))): a(k) = 1, p(k) = k(2k - 1),
+    // q(k) = 2(2k + 1)^2
+    private static final HypergeometricSeries CATALAN_SERIES
+            = new HypergeometricSeries(
+            HypergeometricSeries.polynomial(1),
+            HypergeometricSeries.polynomial(0, -1, 2),
+            HypergeometricSeries.polynomial(2, 8, 8)
+    );
+    // 64 zeta(3): a(k) = 205k^2 + 250k + 77, p(k) = -k^5,
+    // q(k) = 32(2k + 1)^5
+    private static final HypergeometricSeries ZETA3_SERIES
+            = new HypergeometricSeries(
+            HypergeometricSeries.polynomial(77, 250, 205),
+            HypergeometricSeries.polynomial(0, 0, 0, 0, 0, -1),
+            HypergeometricSeries.polynomial(32, 320, 1280, 2560, 2560, 1024)
+    );
+
+    // The caches to store the computed values, for reuse.
+    private static final ConstantCache E_CACHE
+            = new ConstantCache(Constants::e);
+    private static final ConstantCache LN2_CACHE
+            = new ConstantCache(Constants::ln2);
+    private static final ConstantCache LN10_CACHE
+            = new ConstantCache(Constants::ln10);
+    private static final ConstantCache SQRT2_CACHE
+            = new ConstantCache(Constants::sqrt2);
+    private static final ConstantCache GAMMA_CACHE
+            = new ConstantCache(Constants::eulerGamma);
+    private static final ConstantCache CATALAN_CACHE
+            = new ConstantCache(Constants::catalan);
+    private static final ConstantCache ZETA3_CACHE
+            = new ConstantCache(Constants::zeta3);
+
+    /**
+     * This method returns e, the base of the natural logarithm, rounded
+     * according to the given context.
+     *
+     * @param context The {@link MathContext} to specify the precision of
+     *                calculation.
+     * @return e rounded according to the given context.
+     * @throws ArithmeticException If the context is {@code null}.
+     */
+    public static BigDecimal obtainE(final MathContext context)
+            throws ArithmeticException {
+        return obtain(E_CACHE, context);
+    }
+
+    /**
+     * This method returns ln 2 rounded according to the given context.
+     *
+     * @param context The {@link MathContext} to specify the precision of
+     *                calculation.
+     * @return ln 2 rounded according to the given context.
+     * @throws ArithmeticException If the context is {@code null}.
+     */
+    public static BigDecimal obtainLn2(final MathContext context)
+            throws ArithmeticException {
+        return obtain(LN2_CACHE, context);
+    }
+
+    /**
+     * This method returns ln 10 rounded according to the given context.
+     *
+     * @param context The {@link MathContext} to specify the precision of
+     *                calculation.
+     * @return ln 10 rounded according to the given context.
+     * @throws ArithmeticException If the context is {@code null}.
+     */
+    public static BigDecimal obtainLn10(final MathContext context)
+            throws ArithmeticException {
+        return obtain(LN10_CACHE, context);
+    }
+
+    /**
+     * This method returns the square root of 2 rounded according to the
+     * given context.
+     *
+     * @param context The {@link MathContext} to specify the precision of
+     *                calculation.
+     * @return &radic;2 rounded according to the given context.
+     * @throws ArithmeticException If the context is {@code null}.
+     */
+    public static BigDecimal obtainSqrt2(final MathContext context)
+            throws ArithmeticException {
+        return obtain(SQRT2_CACHE, context);
+    }
+
+    /**
+     * This method returns Euler's constant &gamma; (the Euler-Mascheroni
+     * constant) rounded according to the given context.
+     *
+     * @param context The {@link MathContext} to specify the precision of
+     *                calculation.
+     * @return &gamma; rounded according to the given context.
+     * @throws ArithmeticException If the context is {@code null}.
+     */
+    public static BigDecimal obtainEulerGamma(final MathContext context)
+            throws ArithmeticException {
+        return obtain(GAMMA_CACHE, context);
+    }
+
+    /**
+     * This method returns Catalan's constant G rounded according to the
+     * given context.
+     *
+     * @param context The {@link MathContext} to specify the precision of
+     *                calculation.
+     * @return G rounded according to the given context.
+     * @throws ArithmeticException If the context is {@code null}.
+     */
+    public static BigDecimal obtainCatalan(final MathContext context)
+            throws ArithmeticException {
+        return obtain(CATALAN_CACHE, context);
+    }
+
+    /**
+     * This method returns Ap&eacute;ry's constant &zeta;(3) rounded
+     * according to the given context.
+     *
+     * @param context The {@link MathContext} to specify the precision of
+     *                calculation.
+     * @return &zeta;(3) rounded according to the given context.
+     * @throws ArithmeticException If the context is {@code null}.
+     */
+    public static BigDecimal obtainZeta3(final MathContext context)
+            throws ArithmeticException {
+        return obtain(ZETA3_CACHE, context);
+    }
+
+    /**
+     * Validates the context, and serves the request from the given cache.
+     *
+     * @param cache   The cache of the constant.
+     * @param context The {@link MathContext} to specify the precision of
+     *                calculation.
+     * @return The constant rounded according to the given context.
+     * @throws ArithmeticException If the context is {@code null}.
+     */
+    private static BigDecimal obtain(final ConstantCache cache,
+                                     final MathContext context)
+            throws ArithmeticException {
+        // No nulls please
+        if (context == null) {
+            throw new ArithmeticException("A non-null context is needed.");
+        }
+        return cache.getDecimal(context);
+    }
+
+    /**
+     * Returns ln 2 with the given number of bits after the binary point,
+     * for calculations on binary fixed-point numbers.
+     *
+     * @param bits The number of bits after the binary point.
+     * @return The value of 2<sup>bits</sup> ln 2, truncated.
+     */
+    static BigInteger ln2Fixed(final int bits) {
+        return fixed(obtainLn2(new BinaryContext(bits + 8).toMathContext()), bits);
+    }
+
+    /**
+     * Converts the given decimal to a binary fixed-point number.
+     *
+     * @param value The decimal to convert.
+     * @param bits  The number of bits after the binary point.
+     * @return The value of 2<sup>bits</sup> value, truncated.
+     */
+    static BigInteger fixed(final BigDecimal value, final int bits) {
+        BigInteger scaled = value.unscaledValue().shiftLeft(bits);
+        int scale = value.scale();
+        return scale >= 0
+                ? scaled.divide(BigInteger.TEN.pow(scale))
+                : scaled.multiply(BigInteger.TEN.pow(-scale));
+    }
+
+    /**
+     * Sums the given series to the given precision.
+     *
+     * @param series  The series to sum.
+     * @param context The precision of the result.
+     * @return The P, Q and T values of the sum, which is T / Q.
+     */
+    private static RatioSplitter.Result split(final HypergeometricSeries series,
+                                              final MathContext context) {
+        return series.split(series.terms(BinaryContext.from(context).getBits()));
+    }
+
+    /**
+     * Generates e with its series.
+     *
+     * @param context The precision of the result.
+     * @return e accurate to the given precision.
+     */
+    private static BigDecimal e(final MathContext context) {
+        MathContext work = Helper.expandContext(context, GUARD_DIGITS);
+        RatioSplitter.Result sum = split(E_SERIES, work);
+        return new BigDecimal(sum.t).divide(new BigDecimal(sum.q), work);
+    }
+
+    /**
+     * Returns atanh(1/m) = &sum; 1 / ((2k + 1) m<sup>2k + 1</sup>), which
+     * has a(k) = 1, p(k) = 2k - 1 and q(k) = m<sup>2</sup> (2k + 1), apart
+     * from the factor 1/m.
+     *
+     * @param m       The reciprocal of the argument.
+     * @param context The precision of the result.
+     * @return atanh(1/m) accurate to the given precision.
+     */
+    private static BigDecimal atanhInverse(final long m,
+                                           final MathContext context) {
+        BigInteger square = BigInteger.valueOf(m).pow(2);
+        RatioSplitter.Result sum = split(new HypergeometricSeries(
+                HypergeometricSeries.polynomial(1),
+                HypergeometricSeries.polynomial(-1, 2),
+                new BigInteger[]{square, square.shiftLeft(1)}
+        ), context);
+        return new BigDecimal(sum.t)
+                .divide(new BigDecimal(sum.q.multiply(BigInteger.valueOf(m))), context);
+    }
+
+    /**
+     * Generates ln 2 with a Machin-like formula, whose three series add 9,
+     * 24 and 26 bits with each term.
+     *
+     * @param context The precision of the result.
+     * @return ln 2 accurate to the given precision.
+     */
+    private static BigDecimal ln2(final MathContext context) {
+        MathContext work = Helper.expandContext(context, GUARD_DIGITS);
+        return atanhInverse(26, work).multiply(BigDecimal.valueOf(18))
+                .subtract(atanhInverse(4801, work).multiply(BigDecimal.valueOf(2)))
+                .add(atanhInverse(8749, work).multiply(BigDecimal.valueOf(8)), work);
+    }
+
+    /**
+     * Generates ln 10 as 3 ln 2 + ln(5/4), where ln(5/4) = 2 atanh(1/9)
+     * adds more than 6 bits with each term.
+     *
+     * @param context The precision of the result.
+     * @return ln 10 accurate to the given precision.
+     */
+    private static BigDecimal ln10(final MathContext context) {
+        MathContext work = Helper.expandContext(context, GUARD_DIGITS);
+        return obtainLn2(work).multiply(BigDecimal.valueOf(3))
+                .add(atanhInverse(9, work).multiply(BigDecimal.valueOf(2)), work);
+    }
+
+    /**
+     * Generates the square root of 2 with Newton's method.
+     *
+     * @param context The precision of the result.
+     * @return &radic;2 accurate to the given precision.
+     */
+    private static BigDecimal sqrt2(final MathContext context) {
+        return BigMath.sqrt(2, Helper.expandContext(context, GUARD_DIGITS));
+    }
+
+    /**
+     * Generates Euler's constant with the formula of Brent and McMillan.
+     * The parameter n is chosen so that the error, about &pi;
+     * e<sup>-4n</sup>, is below the precision, and the series are summed
+     * until their terms fall below e<sup>-4n</sup> as well.
+     *
+     * @param context The precision of the result.
+     * @return &gamma; accurate to the given precision.
+     */
+    private static BigDecimal eulerGamma(final MathContext context) {
+        MathContext work = Helper.expandContext(context, GUARD_DIGITS);
+        int bits = BinaryContext.from(work).getBits();
+        long n = (long) Math.ceil((bits + 2) * Math.log(2) / 4) + 1;
+        long terms = (long) Math.ceil(GAMMA_TERMS_PER_N * n) + 2;
+        BigInteger bigN = BigInteger.valueOf(n);
+        EulerGammaSplitter.Result sum = MathExecutor.invoke(
+                new EulerGammaSplitter(bigN.multiply(bigN), 1, terms)
+        );
+        // U / V = W / (D (Q + T))
+        BigDecimal ratio = new BigDecimal(sum.w)
+                .divide(new BigDecimal(sum.d.multiply(sum.q.add(sum.t))), work);
+        return ratio.subtract(
+                LogGenerator.obtainDecimal(Rational.valueOf(bigN), work), work
+        );
+    }
+
+    /**
+     * Generates Catalan's constant with a series that adds 2 bits with each
+     * term, along with the cached values of &pi; and ln 2.
+     *
+     * @param context The precision of the result.
+     * @return G accurate to the given precision.
+     */
+    private static BigDecimal catalan(final MathContext context) {
+        MathContext work = Helper.expandContext(context, GUARD_DIGITS);
+        RatioSplitter.Result sum = split(CATALAN_SERIES, work);
+        // 3/8 (T / Q)
+        BigDecimal series = new BigDecimal(sum.t.multiply(THREE))
+                .divide(new BigDecimal(sum.q.shiftLeft(3)), work);
+        // pi/8 ln(2 + sqrt(3))
+        BigDecimal root = BigMath.sqrt(3, work).add(BigDecimal.valueOf(2));
+        BigDecimal log = LogGenerator.obtainDecimal(Rational.valueOf(root), work);
+        BigDecimal term = PiGenerator.obtainDecimal(work).multiply(log)
+                .divide(EIGHT, work);
+        return series.add(term, work);
+    }
+
+    /**
+     * Generates &zeta;(3) with the series of Amdeberhan and Zeilberger,
+     * which adds 10 bits with each term.
+     *
+     * @param context The precision of the result.
+     * @return &zeta;(3) accurate to the given precision.
+     */
+    private static BigDecimal zeta3(final MathContext context) {
+        MathContext work = Helper.expandContext(context, GUARD_DIGITS);
+        RatioSplitter.Result sum = split(ZETA3_SERIES, work);
+        // 1/64 (T / Q)
+        return new BigDecimal(sum.t)
+                .divide(new BigDecimal(sum.q.shiftLeft(6)), work);
+    }
+}
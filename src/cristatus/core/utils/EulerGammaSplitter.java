@@ -0,0 +1,164 @@
+/*
+ * The MIT License (MIT)
+ * ---------------------
+ *
+ * Copyright (c) 2015-2016 Cristatus Solutions
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+ * NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR
+ * THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cristatus.core.utils;
+
+import java.math.BigInteger;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This is a subclass of {@link RecursiveTask} that evaluates the sums of
+ * the Brent-McMillan formula for Euler's constant by binary splitting:
+ * <pre>
+ *     V = &sum; (k &ge; 0) (n<sup>k</sup> / k!)<sup>2</sup>
+ *     U = &sum; (k &ge; 0) (n<sup>k</sup> / k!)<sup>2</sup> H<sub>k</sub>
+ * </pre>
+ * where H<sub>k</sub> is the k<sup>th</sup> harmonic number, so that
+ * &gamma; = U / V - ln n, with an error of about &pi; e<sup>-4n</sup>.
+ * <p>
+ * For a range of terms [a, b), with p(k) = n<sup>2</sup> and
+ * q(k) = k<sup>2</sup>, the task computes P and Q (the products of p and q),
+ * T (as for any hypergeometric series, see {@link RatioSplitter}), the
+ * harmonic sum C / D = &sum; 1/k, with D = &prod; k, and W, such that
+ * <pre>
+ *     &sum; (k = a to b - 1) (&prod; (j = a to k) p(j) / q(j)) (&sum; (j = a to k) 1/j) = W / (Q D)
+ * </pre>
+ * Two adjacent ranges are combined as:
+ * <pre>
+ *     C(a, c) = C(a, b) D(b, c) + D(a, b) C(b, c)
+ *     W(a, c) = Q(b, c) D(b, c) W(a, b)
+ *             + P(a, b) (C(a, b) D(b, c) T(b, c) + D(a, b) W(b, c))
+ * </pre>
+ * and the others as products, or as for {@link RatioSplitter}. For the
+ * whole series, starting at k = 1, V = (Q + T) / Q and U = W / (Q D).
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+class EulerGammaSplitter extends RecursiveTask<EulerGammaSplitter.Result> {
+
+    // If the difference between the limits is within the threshold, then the
+    // computation is carried out directly, instead of dividing it into two.
+    private static final long THRESHOLD = 1_000;
+
+    private final BigInteger square;    // n^2
+    private final long start;           // The inclusive lower limit
+    private final long end;             // The exclusive upper limit
+
+    /**
+     * The P, Q, T, C, D and W values for a range of terms.
+     */
+    static final class Result {
+        final BigInteger p;
+        final BigInteger q;
+        final BigInteger t;
+        final BigInteger c;
+        final BigInteger d;
+        final BigInteger w;
+
+        Result(final BigInteger p, final BigInteger q, final BigInteger t,
+               final BigInteger c, final BigInteger d, final BigInteger w) {
+            this.p = p;
+            this.q = q;
+            this.t = t;
+            this.c = c;
+            this.d = d;
+            this.w = w;
+        }
+    }
+
+    /**
+     * Creates a new EulerGammaSplitter ready to be forked or invoked.
+     *
+     * @param square The square of n, the parameter of the formula.
+     * @param start  The inclusive lower limit.
+     * @param end    The exclusive upper limit.
+     */
+    EulerGammaSplitter(final BigInteger square,
+                       final long start,
+                       final long end) {
+        this.square = square;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Combines the results of two adjacent ranges.
+     *
+     * @param left  The result for [a, b).
+     * @param right The result for [b, c).
+     * @return The result for [a, c).
+     */
+    private static Result combine(final Result left, final Result right) {
+        BigInteger p = left.p.multiply(right.p);
+        BigInteger q = left.q.multiply(right.q);
+        BigInteger t = right.q.multiply(left.t).add(left.p.multiply(right.t));
+        BigInteger c = left.c.multiply(right.d).add(left.d.multiply(right.c));
+        BigInteger d = left.d.multiply(right.d);
+        BigInteger w = right.q.multiply(right.d).multiply(left.w).add(
+                left.p.multiply(left.c.multiply(right.d).multiply(right.t)
+                        .add(left.d.multiply(right.w)))
+        );
+        return new Result(p, q, t, c, d, w);
+    }
+
+    /**
+     * The difference between the limits is within the threshold; split the
+     * range recursively in this thread.
+     *
+     * @param a The inclusive lower limit.
+     * @param b The exclusive upper limit.
+     * @return The result for the range [a, b).
+     */
+    private Result computeDirectly(final long a, final long b) {
+        if (b - a == 1) {
+            BigInteger k = BigInteger.valueOf(a);
+            return new Result(square, k.multiply(k), square,
+                    BigInteger.ONE, k, square);
+        }
+        long mid = (a + b) >>> 1;
+        return combine(computeDirectly(a, mid), computeDirectly(mid, b));
+    }
+
+    /**
+     * This is the method that delegates control to the direct computation
+     * method if the threshold requirement is met, or subdivides the task
+     * into two separate tasks and executes them in parallel.
+     *
+     * @return The result for the range [start, end), calculated in parallel.
+     */
+    @Override
+    protected Result compute() {
+        if (end - start <= THRESHOLD) {
+            return computeDirectly(start, end);
+        }
+        long mid = (start + end) >>> 1;
+        EulerGammaSplitter left = new EulerGammaSplitter(square, start, mid);
+        EulerGammaSplitter right = new EulerGammaSplitter(square, mid, end);
+        left.fork();
+        Result rightResult = right.compute();
+        return combine(left.join(), rightResult);
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * The MIT License (MIT)
+ * ---------------------
+ *
+ * Copyright (c) 2015-2016 Cristatus Solutions
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+ * NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR
+ * THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cristatus.core.utils;
+
+import cristatus.core.Rational;
+
+import java.math.BigInteger;
+import java.math.MathContext;
+
+/**
+ * This class acts as the access point for the calculation of the
+ * exponential function, e<sup>x</sup>, to high precision.
+ * <p>
+ * The argument is reduced in two steps. First, the nearest multiple of
+ * ln 2 is taken out: e<sup>x</sup> = 2<sup>m</sup> e<sup>r</sup>, where
+ * |r| &le; (ln 2) / 2. Then r is divided by 2<sup>k</sup>, and the result
+ * is squared k times at the end. Both steps make the terms of the series
+ * fall off faster.
+ * <p>
+ * The reduced series is summed by binary splitting. An argument that is a
+ * small rational is used as it is. Any other argument is cut into pieces
+ * of doubling bit lengths (the "bit-burst" method), and the exponentials of
+ * the pieces are multiplied together. Either way, the integers involved
+ * remain of the size of the result.
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class ExpGenerator {
+
+    private static final double LN2 = Math.log(2);
+    // Beyond this, the result cannot be represented (2^m needs an int m)
+    private static final double MAX_ARGUMENT = Integer.MAX_VALUE * LN2;
+    // The number of guard bits for the truncations
+    private static final int GUARD_BITS = 32;
+    // The number of bits in the numerator of the first piece of the argument
+    private static final int FIRST_PIECE_BITS = 64;
+    // The largest numerator or denominator that is summed as it is
+    private static final int SMALL_RATIONAL_BITS = 256;
+
+    // The polynomial a(k) = 1
+    private static final BigInteger[] ONE = {BigInteger.ONE};
+
+    /**
+     * This method returns e<sup>x</sup> approximated to the desired
+     * precision. The result is a binary fraction with at least as many
+     * correct bits as the precision of the context calls for.
+     *
+     * @param x       The argument.
+     * @param context The {@link MathContext} to specify the precision of
+     *                calculation.
+     * @return e<sup>x</sup> with the desired precision.
+     * @throws ArithmeticException If the context is {@code null}, or if the
+     *                             argument is too large in magnitude.
+     */
+    public static Rational obtainRational(final Rational x,
+                                          final MathContext context)
+            throws ArithmeticException {
+        return evaluate(x, context).getValue();
+    }
+
+    /**
+     * This method returns e<sup>x</sup> approximated to the desired
+     * precision, along with the number of terms summed. The series of all
+     * the pieces of the argument are summed by binary splitting, which uses
+     * exactly the number of terms bounded in advance.
+     *
+     * @param x       The argument.
+     * @param context The {@link MathContext} to specify the precision of
+     *                calculation.
+     * @return e<sup>x</sup> with the desired precision, and the number of
+     * terms summed.
+     * @throws ArithmeticException If the context is {@code null}, or if the
+     *                             argument is too large in magnitude.
+     * @see #obtainRational(Rational, MathContext)
+     */
+    public static SeriesResult<Rational> evaluate(final Rational x,
+                                                  final MathContext context)
+            throws ArithmeticException {
+        // No nulls please
+        if (context == null) {
+            throw new ArithmeticException("A non-null context is needed.");
+        }
+        if (x.signum() == 0) {
+            return new SeriesResult<>(Rational.ONE, 0, 0);
+        }
+        double approx = x.doubleValue();
+        if (!(Math.abs(approx) < MAX_ARGUMENT)) {
+            throw new ArithmeticException("Exponent overflow.");
+        }
+        int m = (int) Math.round(approx / LN2);
+        int bits = BinaryContext.from(context).getBits();
+        // The squarings at the end lose one bit each
+        int k = 32 - Integer.numberOfLeadingZeros(bits);
+        int work = bits + k + GUARD_BITS;
+
+        SeriesResult<BigInteger> series;
+        if (m == 0 && x.getNumerator().bitLength() <= SMALL_RATIONAL_BITS
+                && x.getDenominator().bitLength() <= SMALL_RATIONAL_BITS) {
+            series = expSmall(x.getNumerator(), x.getDenominator(), k, work);
+        } else {
+            // r = x - m ln 2, to "work" bits after the binary point
+            int rBits = work + 32 - Integer.numberOfLeadingZeros(Math.abs(m));
+            BigInteger r = x.getNumerator().shiftLeft(rBits)
+                    .divide(x.getDenominator());
+            if (m != 0) {
+                r = r.subtract(Constants.ln2Fixed(rBits).multiply(BigInteger.valueOf(m)));
+            }
+            series = expBurst(r, rBits + k, work);
+        }
+        BigInteger fixed = series.getValue();
+        for (int i = 0; i < k; i++) {
+            fixed = fixed.multiply(fixed).shiftRight(work);
+        }
+        return series.withValue(
+                Rational.valueOf(fixed).scaleByPowerOfTwo(m - work)
+        );
+    }
+
+    /**
+     * Returns e<sup>x</sup> with the given number of bits after the binary
+     * point, where x = num / (den 2<sup>shift</sup>) is a small rational.
+     *
+     * @param num   The numerator of the argument.
+     * @param den   The denominator of the argument.
+     * @param shift The power of 2 that the argument is divided by.
+     * @param work  The number of bits after the binary point.
+     * @return The value of e<sup>x</sup> 2<sup>work</sup>, truncated, and
+     * the number of terms summed.
+     */
+    private static SeriesResult<BigInteger> expSmall(final BigInteger num,
+                                       final BigInteger den,
+                                       final int shift,
+                                       final int work) {
+        return sumSeries(num, den.shiftLeft(shift), work);
+    }
+
+    /**
+     * Returns e<sup>x</sup> with the given number of bits after the binary
+     * point, where x = r / 2<sup>scale</sup>. The argument is cut into
+     * pieces, with the numerator of each piece twice as long as that of the
+     * one before it, and hence the terms of its series falling off twice as
+     * fast.
+     *
+     * @param r     The argument, as a fixed-point number.
+     * @param scale The number of bits after the binary point in r.
+     * @param work  The number of bits after the binary point in the result.
+     * @return The value of e<sup>x</sup> 2<sup>work</sup>, truncated, and
+     * the number of terms summed for all the pieces.
+     */
+    private static SeriesResult<BigInteger> expBurst(final BigInteger r,
+                                                     final int scale,
+                                                     final int work) {
+        BigInteger abs = r.abs();
+        BigInteger result = BigInteger.ONE.shiftLeft(work);
+        long terms = 0;
+        int from = 0;
+        int to = FIRST_PIECE_BITS;
+        while (from < scale) {
+            to = Math.min(to, scale);
+            // The bits from "from" (exclusive) to "to" (inclusive)
+            BigInteger piece = abs.shiftRight(scale - to)
+                    .subtract(abs.shiftRight(scale - from).shiftLeft(to - from));
+            if (piece.signum() != 0) {
+                SeriesResult<BigInteger> factor = sumSeries(
+                        r.signum() < 0 ? piece.negate() : piece,
+                        BigInteger.ONE.shiftLeft(to), work
+                );
+                result = result.multiply(factor.getValue()).shiftRight(work);
+                terms += factor.getTerms();
+            }
+            from = to;
+            to <<= 1;
+        }
+        return new SeriesResult<>(result, terms, terms);
+    }
+
+    /**
+     * Sums the series for e<sup>x</sup>, where x = num / den, by binary
+     * splitting, with as many terms as needed.
+     *
+     * @param num  The numerator of the argument.
+     * @param den  The denominator of the argument.
+     * @param work The number of bits after the binary point.
+     * @return The value of e<sup>x</sup> 2<sup>work</sup>, truncated, and
+     * the number of terms summed.
+     */
+    private static SeriesResult<BigInteger> sumSeries(final BigInteger num,
+                                                      final BigInteger den,
+                                                      final int work) {
+        // a(k) = 1, p(k) = num, q(k) = den k
+        return new HypergeometricSeries(
+                ONE,
+                new BigInteger[]{num},
+                new BigInteger[]{BigInteger.ZERO, den}
+        ).evaluateFixed(work);
+    }
+}
@@ -26,7 +26,6 @@
 package cristatus.core.utils;
 
 import java.math.BigInteger;
-import java.util.concurrent.ForkJoinPool;
 
 /**
  * This class provides the functionality of calculating the factorial of
@@ -40,6 +39,31 @@ public class Factorial {
     private static final String FAIL_MESSAGE =
             "The factorial function is only defined for non-negative integers.";
 
+    // Below this, the plain product of all the integers is faster
+    private static final BigInteger SWING_THRESHOLD = BigInteger.valueOf(1_000);
+
+    // The cache in use, if any; volatile, as it is read without locking
+    private static volatile FactorialCache cache = null;
+
+    /**
+     * Installs a cache for all the factorials calculated by the library,
+     * including the ones needed internally. By default, there is none.
+     *
+     * @param factorialCache The cache to use, or {@code null} for none.
+     */
+    public static void setCache(final FactorialCache factorialCache) {
+        cache = factorialCache;
+    }
+
+    /**
+     * Returns the cache in use, if any.
+     *
+     * @return The cache in use, or {@code null} if there is none.
+     */
+    public static FactorialCache getCache() {
+        return cache;
+    }
+
     /**
      * This method accepts any type of integer - int, long, and
      * even Rationals encapsulating integers and returns the factorial of
@@ -72,17 +96,73 @@ public class Factorial {
         return verified(number);
     }
 
+    /**
+     * This method returns the factorial of the the given BigInteger, saving
+     * the progress of the calculation to the given checkpoint, so that it
+     * can be resumed if it is interrupted. The cache is not consulted.
+     * <p>
+     * Only the {@link PrimeSwing} algorithm, used for arguments above 1000
+     * that fit in an int, saves its progress: the odd parts of the
+     * factorials in its recursion and the large subtrees of the products of
+     * the swinging factorials. The other arguments are either quick to
+     * handle, or far too large to be feasible anyway, and are calculated
+     * as usual.
+     *
+     * @param number     The non-negative integer whose factorial to calculate.
+     * @param checkpoint The checkpoint to use, or {@code null} for none.
+     * @return The factorial of the verified integer.
+     * @throws ArithmeticException If the number is negative.
+     * @see Checkpoint
+     */
+    public static BigInteger of(BigInteger number, Checkpoint checkpoint)
+            throws ArithmeticException {
+        if (checkpoint == null) {
+            return of(number);
+        }
+        if (number.signum() < 0) {
+            throw new ArithmeticException(FAIL_MESSAGE);
+        }
+        if (number.compareTo(SWING_THRESHOLD) > 0
+                && number.bitLength() < Integer.SIZE) {
+            return PrimeSwing.factorial(number.intValue(), checkpoint);
+        }
+        return compute(number);
+    }
+
     /**
      * Control is delegated to this method after the verification has been
-     * done. This method invokes the {@link SequentialMultiplier} via a
-     * {@link ForkJoinPool}.
+     * done. The cache, if one is installed, serves the arguments that fit
+     * in an int.
      *
      * @param number The  verified non-negative integer whose factorial to
      *               calculate.
      * @return The factorial of the verified integer.
      */
     static BigInteger verified(BigInteger number) {
-        ForkJoinPool pool = new ForkJoinPool();
-        return pool.invoke(new SequentialMultiplier(BigInteger.ONE, number));
+        FactorialCache current = cache;
+        if (current != null && number.bitLength() < Integer.SIZE) {
+            return current.of(number.intValue());
+        }
+        return compute(number);
+    }
+
+    /**
+     * Calculates the factorial without the cache. Large arguments are
+     * handled by the {@link PrimeSwing} algorithm, which is asymptotically
+     * much faster. Small arguments (and the ones too large for an int) fall
+     * back to the {@link SequentialMultiplier}. Both are invoked via the
+     * {@link MathExecutor}.
+     *
+     * @param number The  verified non-negative integer whose factorial to
+     *               calculate.
+     * @return The factorial of the verified integer.
+     * @throws ArithmeticException If the integer does not fit in a long.
+     */
+    static BigInteger compute(BigInteger number) {
+        if (number.compareTo(SWING_THRESHOLD) > 0
+                && number.bitLength() < Integer.SIZE) {
+            return PrimeSwing.factorial(number.intValue());
+        }
+        return MathExecutor.invoke(new SequentialMultiplier(1, number.longValueExact()));
     }
 }
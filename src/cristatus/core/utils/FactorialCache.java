@@ -0,0 +1,260 @@
+/*
+ * The MIT License (MIT)
+ * ---------------------
+ *
+ * Copyright (c) 2015-2016 Cristatus Solutions
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+ * NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR
+ * THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cristatus.core.utils;
+
+import java.math.BigInteger;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread-safe cache of factorials, for workloads that ask for the
+ * factorials of many nearby arguments.
+ * <p>
+ * The cache stores <i>checkpoints</i>: the factorials of the multiples of a
+ * (configurable) spacing. The factorial of n is obtained from the factorial
+ * of the largest multiple c &le; n by multiplying in the integers from c + 1
+ * to n. If that checkpoint is not cached, it is calculated (from a lower
+ * checkpoint, if one is close enough) and stored first. The checkpoint is a
+ * <i>hit</i> if it was found, and a <i>miss</i> otherwise.
+ * <p>
+ * The memory used by the checkpoints is bounded by a (configurable) limit.
+ * When it is exceeded, the least recently used checkpoints are evicted.
+ * A cache can be installed for all the factorials calculated by the library
+ * with {@link Factorial#setCache(FactorialCache)}.
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+@SuppressWarnings("WeakerAccess")
+public final class FactorialCache {
+
+    /**
+     * The default limit on the memory used by the checkpoints: 64 MiB.
+     */
+    public static final long DEFAULT_MEMORY_LIMIT = 64L << 20;
+
+    /**
+     * The default spacing between the checkpoints.
+     */
+    public static final int DEFAULT_SPACING = 10_000;
+
+    private final long memoryLimit;
+    private final int spacing;
+
+    // The checkpoints, with their factorials; least recently used first.
+    // Guarded by the lock on this.
+    private final LinkedHashMap<Integer, BigInteger> checkpoints
+            = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryUsed = 0;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Creates a new, empty cache with the default memory limit and spacing.
+     */
+    public FactorialCache() {
+        this(DEFAULT_MEMORY_LIMIT, DEFAULT_SPACING);
+    }
+
+    /**
+     * Creates a new, empty cache with the given memory limit and spacing
+     * between the checkpoints.
+     *
+     * @param memoryLimit The limit on the memory used, in bytes.
+     * @param spacing     The spacing between the checkpoints.
+     * @throws IllegalArgumentException If the limit is negative or if the
+     *                                  spacing is not positive.
+     */
+    public FactorialCache(final long memoryLimit, final int spacing)
+            throws IllegalArgumentException {
+        if (memoryLimit < 0)
+            throw new IllegalArgumentException("Negative memory limit.");
+        if (spacing <= 0)
+            throw new IllegalArgumentException("Non-positive spacing.");
+        this.memoryLimit = memoryLimit;
+        this.spacing = spacing;
+    }
+
+    /**
+     * Returns the factorial of the given non-negative integer, using and
+     * updating the checkpoints.
+     *
+     * @param n The non-negative integer whose factorial to calculate.
+     * @return The factorial of n.
+     * @throws ArithmeticException If n is negative.
+     */
+    public BigInteger of(final int n) throws ArithmeticException {
+        if (n < 0) {
+            throw new ArithmeticException(
+                    "The factorial function is only defined for non-negative integers."
+            );
+        }
+        int checkpoint = n - n % spacing;
+        BigInteger factorial = checkpoint == 0
+                ? BigInteger.ONE
+                : checkpoint(checkpoint);
+        return factorial.multiply(product(checkpoint, n));
+    }
+
+    /**
+     * Returns the factorial of the given checkpoint, calculating and storing
+     * it if it is not cached. It is calculated from the nearest lower
+     * checkpoint that is cached, provided that the product needed is shorter
+     * than the one below that checkpoint; otherwise, from scratch.
+     *
+     * @param checkpoint The (positive) checkpoint.
+     * @return The factorial of the checkpoint.
+     */
+    private BigInteger checkpoint(final int checkpoint) {
+        int lower = 0;
+        BigInteger factorial;
+        synchronized (this) {
+            factorial = checkpoints.get(checkpoint);
+            if (factorial == null) {
+                for (int c = checkpoint - spacing; c > checkpoint - c; c -= spacing) {
+                    if (checkpoints.containsKey(c)) {
+                        lower = c;
+                        break;
+                    }
+                }
+            }
+        }
+        if (factorial != null) {
+            hits.incrementAndGet();
+            return factorial;
+        }
+        misses.incrementAndGet();
+        // The product is calculated outside the lock
+        if (lower > 0) {
+            BigInteger base;
+            synchronized (this) {
+                base = checkpoints.get(lower);
+            }
+            factorial = base == null
+                    ? Factorial.compute(BigInteger.valueOf(checkpoint))
+                    : base.multiply(product(lower, checkpoint));
+        } else {
+            factorial = Factorial.compute(BigInteger.valueOf(checkpoint));
+        }
+        store(checkpoint, factorial);
+        return factorial;
+    }
+
+    /**
+     * Returns the product of the integers in the range (from, to].
+     *
+     * @param from The exclusive lower limit.
+     * @param to   The inclusive upper limit.
+     * @return The product of the integers from + 1 to to.
+     */
+    private static BigInteger product(final int from, final int to) {
+        if (from >= to) {
+            return BigInteger.ONE;
+        }
+        return MathExecutor.invoke(new SequentialMultiplier(from + 1L, to));
+    }
+
+    /**
+     * Stores a checkpoint and evicts the least recently used ones if the
+     * memory used exceeds the limit.
+     *
+     * @param checkpoint The checkpoint.
+     * @param factorial  Its factorial.
+     */
+    private synchronized void store(final int checkpoint,
+                                    final BigInteger factorial) {
+        // Roughly the size of the factorial, in bytes
+        long bytes = factorial.bitLength() >>> 3;
+        if (bytes > memoryLimit || checkpoints.containsKey(checkpoint)) {
+            return;
+        }
+        checkpoints.put(checkpoint, factorial);
+        memoryUsed += bytes;
+        Iterator<Map.Entry<Integer, BigInteger>> iterator
+                = checkpoints.entrySet().iterator();
+        while (memoryUsed > memoryLimit && iterator.hasNext()) {
+            Map.Entry<Integer, BigInteger> eldest = iterator.next();
+            iterator.remove();
+            memoryUsed -= eldest.getValue().bitLength() >>> 3;
+        }
+    }
+
+    /**
+     * Removes all the checkpoints. The counters are not reset.
+     */
+    public synchronized void clear() {
+        checkpoints.clear();
+        memoryUsed = 0;
+    }
+
+    /**
+     * Returns the spacing between the checkpoints.
+     *
+     * @return The spacing between the checkpoints.
+     */
+    public int getSpacing() {
+        return spacing;
+    }
+
+    /**
+     * Returns the limit on the memory used by the checkpoints.
+     *
+     * @return The limit, in bytes.
+     */
+    public long getMemoryLimit() {
+        return memoryLimit;
+    }
+
+    /**
+     * Returns the (approximate) memory used by the checkpoints.
+     *
+     * @return The memory used, in bytes.
+     */
+    public synchronized long getMemoryUsed() {
+        return memoryUsed;
+    }
+
+    /**
+     * Returns the number of requests whose checkpoint was cached.
+     *
+     * @return The number of hits.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of requests whose checkpoint had to be calculated.
+     *
+     * @return The number of misses.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+}
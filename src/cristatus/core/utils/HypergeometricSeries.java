@@ -0,0 +1,426 @@
+/*
+ * The MIT License (MIT)
+ * ---------------------
+ *
+ * Copyright (c) 2015-2016 Cristatus Solutions
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+ * NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR
+ * THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cristatus.core.utils;
+
+import cristatus.core.Rational;
+
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * This class represents a hypergeometric series: a series whose
+ * consecutive terms have a ratio that is a rational function of the index.
+ * It is described by three polynomials with integer coefficients, a(k),
+ * p(k) and q(k), as:
+ * <pre>
+ *     S = &sum; (k &ge; 0) a(k) &prod; (j = 1 to k) p(j) / q(j)
+ * </pre>
+ * The series for e<sup>x</sup>, where x = u / v, for instance, has
+ * a(k) = 1, p(k) = u and q(k) = vk; the Chudnovsky series for &pi; has
+ * a(k) = 13591409 + 545140134k, p(k) = -(6k - 5)(2k - 1)(6k - 1) and
+ * q(k) = 10939058860032000k<sup>3</sup>.
+ * <p>
+ * The number of terms needed for a given precision is estimated from the
+ * polynomials, and the terms are summed exactly by binary splitting, in
+ * parallel. Hence, all the integers involved remain of the size of the
+ * result, and only one division at the full precision is needed at the end.
+ * <p>
+ * All instances of HypergeometricSeries are <i>immutable</i>.
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ * @see RatioSplitter
+ */
+@SuppressWarnings("WeakerAccess")
+public final class HypergeometricSeries {
+
+    private static final double LN2 = Math.log(2);
+    // The number of guard bits for the truncations
+    private static final int GUARD_BITS = 32;
+    // The largest root of p(k) that is looked for, to end a finite series
+    private static final BigInteger MAX_ROOT = BigInteger.valueOf(1 << 20);
+
+    // The coefficients, in ascending powers of k
+    private final BigInteger[] a;
+    private final BigInteger[] p;
+    private final BigInteger[] q;
+    // The limit of log2|p(k) / q(k)| as k grows
+    private final double limit;
+    // The name of the series in a checkpoint
+    private final String key;
+
+    /**
+     * Creates a new HypergeometricSeries from the coefficients of its
+     * polynomials, given in ascending powers of k.
+     *
+     * @param a The coefficients of the polynomial a(k).
+     * @param p The coefficients of the numerator p(k) of the ratio.
+     * @param q The coefficients of the denominator q(k) of the ratio.
+     * @throws ArithmeticException If the series does not converge (and does
+     *                             not terminate either).
+     */
+    public HypergeometricSeries(final BigInteger[] a,
+                                final BigInteger[] p,
+                                final BigInteger[] q)
+            throws ArithmeticException {
+        this.a = trim(a);
+        this.p = trim(p);
+        this.q = trim(q);
+        int degreeP = this.p.length - 1;
+        int degreeQ = this.q.length - 1;
+        if (degreeQ < 0) {
+            throw new ArithmeticException("Division by zero.");
+        }
+        if (degreeP < degreeQ) {
+            limit = Double.NEGATIVE_INFINITY;
+        } else if (degreeP == degreeQ) {
+            limit = log2(this.p[degreeP]) - log2(this.q[degreeQ]);
+        } else {
+            limit = Double.POSITIVE_INFINITY;
+        }
+        if (!(limit < 0) && !terminates(this.p)) {
+            throw new ArithmeticException("The series does not converge.");
+        }
+        CRC32 crc = new CRC32();
+        for (BigInteger[] coefficients : new BigInteger[][]{this.a, this.p, this.q}) {
+            crc.update(Arrays.toString(coefficients).getBytes(StandardCharsets.US_ASCII));
+        }
+        key = "series-" + Long.toHexString(crc.getValue());
+    }
+
+    /**
+     * A convenience method that returns the coefficients of a polynomial
+     * as {@link BigInteger}s.
+     *
+     * @param coefficients The coefficients, in ascending powers of k.
+     * @return The coefficients as BigIntegers.
+     */
+    public static BigInteger[] polynomial(final long... coefficients) {
+        BigInteger[] result = new BigInteger[coefficients.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = BigInteger.valueOf(coefficients[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Removes the zero coefficients of the highest powers, so that the
+     * last one is the leading coefficient.
+     *
+     * @param coefficients The coefficients, in ascending powers of k.
+     * @return A copy without the leading zeros; empty for the zero
+     * polynomial.
+     */
+    private static BigInteger[] trim(final BigInteger[] coefficients) {
+        int length = coefficients.length;
+        while (length > 0 && coefficients[length - 1].signum() == 0) {
+            length--;
+        }
+        return Arrays.copyOf(coefficients, length);
+    }
+
+    /**
+     * Checks whether the polynomial has a positive integer root, which makes
+     * all the terms after it zero. All the roots are bounded in magnitude
+     * by 1 + max|c<sub>i</sub> / c<sub>n</sub>| (Cauchy's bound); but only
+     * the first few of the candidates within the bound are tried.
+     *
+     * @param coefficients The coefficients, in ascending powers of k.
+     * @return {@code true} if a positive integer root has been found.
+     */
+    private static boolean terminates(final BigInteger[] coefficients) {
+        int degree = coefficients.length - 1;
+        if (degree < 1) {
+            // A constant p(k) has no roots, except if it is zero
+            return degree < 0;
+        }
+        BigInteger max = BigInteger.ZERO;
+        for (BigInteger coefficient : coefficients) {
+            max = max.max(coefficient.abs());
+        }
+        BigInteger bound = max.divide(coefficients[degree].abs()).add(BigInteger.ONE);
+        long candidates = bound.min(MAX_ROOT).longValue();
+        for (long k = 1; k <= candidates; k++) {
+            if (evaluate(coefficients, k).signum() == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Evaluates the polynomial with the given coefficients by Horner's rule.
+     *
+     * @param coefficients The coefficients, in ascending powers of k.
+     * @param k            The argument.
+     * @return The value of the polynomial at k.
+     */
+    private static BigInteger evaluate(final BigInteger[] coefficients,
+                                       final long k) {
+        if (coefficients.length == 0) {
+            return BigInteger.ZERO;
+        }
+        BigInteger bigK = BigInteger.valueOf(k);
+        BigInteger result = coefficients[coefficients.length - 1];
+        for (int i = coefficients.length - 2; i >= 0; i--) {
+            result = result.multiply(bigK).add(coefficients[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Returns an approximation of log<sub>2</sub>|x|, for any size of x.
+     *
+     * @param x The non-zero integer.
+     * @return An approximation of log<sub>2</sub>|x|.
+     */
+    private static double log2(final BigInteger x) {
+        BigInteger abs = x.abs();
+        int shift = Math.max(0, abs.bitLength() - 63);
+        return Math.log(abs.shiftRight(shift).doubleValue()) / LN2 + shift;
+    }
+
+    /**
+     * Returns the name of this series in a {@link Checkpoint}, which depends
+     * only on its coefficients.
+     *
+     * @return The name of this series.
+     */
+    String key() {
+        return key;
+    }
+
+    /**
+     * Returns the value of a(k).
+     *
+     * @param k The index of the term.
+     * @return The value of a(k).
+     */
+    BigInteger a(final long k) {
+        return evaluate(a, k);
+    }
+
+    /**
+     * Returns the value of p(k).
+     *
+     * @param k The index of the term.
+     * @return The value of p(k).
+     */
+    BigInteger p(final long k) {
+        return evaluate(p, k);
+    }
+
+    /**
+     * Returns the value of q(k).
+     *
+     * @param k The index of the term.
+     * @return The value of q(k).
+     */
+    BigInteger q(final long k) {
+        return evaluate(q, k);
+    }
+
+    /**
+     * Returns the number of terms, counted from k = 0, after which the rest
+     * of the series is smaller than 2<sup>-bits</sup> in magnitude. For a
+     * series that terminates, it is the number of non-zero terms at most.
+     * <p>
+     * The magnitudes of the terms are followed with floating point numbers,
+     * until they are small enough and falling off fast enough. This takes
+     * time proportional to the number of terms, which is negligible next to
+     * the summation itself.
+     *
+     * @param bits The number of bits after the binary point that must be
+     *             correct.
+     * @return The number of terms to sum.
+     * @throws ArithmeticException If a q(k) turns out to be zero.
+     */
+    public long terms(final int bits) throws ArithmeticException {
+        // A zero a(k) is counted as 1, which overestimates the term
+        double previous = Math.max(0, log2(a(0).max(BigInteger.ONE)));
+        double product = 0;     // log2 |p(1) ... p(k) / q(1) ... q(k)|
+        for (long k = 1; ; k++) {
+            BigInteger pk = p(k);
+            if (pk.signum() == 0) {
+                // All the terms from here on are zero
+                return k;
+            }
+            BigInteger qk = q(k);
+            if (qk.signum() == 0) {
+                throw new ArithmeticException("Division by zero.");
+            }
+            product += log2(pk) - log2(qk);
+            BigInteger ak = a(k);
+            double term = product + (ak.signum() == 0 ? 0 : log2(ak));
+            // The ratio of the terms, which bounds the rest of the series
+            double ratio = Math.max(term - previous, limit);
+            previous = term;
+            // The tail is at most term / (1 - 2^ratio)
+            if (ratio < 0 && term - Math.log1p(-Math.pow(2, ratio)) / LN2 < -bits) {
+                return k;
+            }
+        }
+    }
+
+    /**
+     * Sums the given number of terms exactly by binary splitting, in
+     * parallel. The values P, Q and T in the result are such that the sum
+     * is T / Q.
+     *
+     * @param terms The number of terms to sum, counted from k = 0.
+     * @return The P, Q and T values for the terms [0, terms).
+     */
+    RatioSplitter.Result split(final long terms) {
+        return split(terms, null);
+    }
+
+    /**
+     * Sums the given number of terms exactly by binary splitting, in
+     * parallel, saving the progress to the given checkpoint.
+     *
+     * @param terms      The number of terms to sum, counted from k = 0.
+     * @param checkpoint The checkpoint to use, or {@code null} for none.
+     * @return The P, Q and T values for the terms [0, terms).
+     * @see Checkpoint
+     */
+    RatioSplitter.Result split(final long terms, final Checkpoint checkpoint) {
+        BigInteger a0 = a(0);
+        if (terms <= 1) {
+            return new RatioSplitter.Result(BigInteger.ONE, BigInteger.ONE,
+                    terms <= 0 ? BigInteger.ZERO : a0);
+        }
+        RatioSplitter.Result tail = MathExecutor.invoke(
+                new RatioSplitter(this, 1, terms, checkpoint)
+        );
+        return new RatioSplitter.Result(tail.p, tail.q,
+                tail.q.multiply(a0).add(tail.t));
+    }
+
+    /**
+     * Returns the sum of the series with the given number of bits after the
+     * binary point, for calculations on binary fixed-point numbers.
+     *
+     * @param bits The number of bits after the binary point.
+     * @return The value of 2<sup>bits</sup> S, truncated towards zero, with
+     * an error of at most a few units.
+     */
+    public BigInteger sumFixed(final int bits) {
+        return sumFixed(bits, null);
+    }
+
+    /**
+     * Returns the sum of the series with the given number of bits after the
+     * binary point, saving the partial results of the binary splitting to
+     * the given checkpoint. A sum that was interrupted resumes from the
+     * ranges of terms that were completed.
+     *
+     * @param bits       The number of bits after the binary point.
+     * @param checkpoint The checkpoint to use, or {@code null} for none.
+     * @return The value of 2<sup>bits</sup> S, truncated towards zero, with
+     * an error of at most a few units.
+     * @see Checkpoint
+     */
+    public BigInteger sumFixed(final int bits, final Checkpoint checkpoint) {
+        RatioSplitter.Result sum = split(terms(bits + 2), checkpoint);
+        return sum.t.shiftLeft(bits).divide(sum.q);
+    }
+
+    /**
+     * Returns the sum of the series with the given number of bits after the
+     * binary point, along with the number of terms used. Binary splitting
+     * sums exactly as many terms as {@link #terms(int)} bounds in advance.
+     *
+     * @param bits The number of bits after the binary point.
+     * @return The value of 2<sup>bits</sup> S, truncated towards zero, with
+     * an error of at most a few units, and the number of terms summed.
+     */
+    public SeriesResult<BigInteger> evaluateFixed(final int bits) {
+        long terms = terms(bits + 2);
+        RatioSplitter.Result sum = split(terms);
+        return new SeriesResult<>(sum.t.shiftLeft(bits).divide(sum.q),
+                terms, terms);
+    }
+
+    /**
+     * Returns the sum of the series approximated to the desired precision.
+     * The result is a binary fraction with at least as many correct bits as
+     * the precision of the context calls for, relative to the sum. If the
+     * terms cancel each other out, the sum is repeated with a higher
+     * precision, up to twice the original one.
+     *
+     * @param context The {@link MathContext} to specify the precision of
+     *                calculation.
+     * @return The sum with the desired precision.
+     * @throws ArithmeticException If the context is {@code null}.
+     */
+    public Rational sum(final MathContext context) throws ArithmeticException {
+        return sum(context, null);
+    }
+
+    /**
+     * Returns the sum of the series approximated to the desired precision,
+     * saving the partial results of the binary splitting to the given
+     * checkpoint. A sum that was interrupted resumes from the ranges of
+     * terms that were completed.
+     *
+     * @param context    The {@link MathContext} to specify the precision of
+     *                   calculation.
+     * @param checkpoint The checkpoint to use, or {@code null} for none.
+     * @return The sum with the desired precision.
+     * @throws ArithmeticException If the context is {@code null}.
+     * @see #sum(MathContext)
+     */
+    public Rational sum(final MathContext context, final Checkpoint checkpoint)
+            throws ArithmeticException {
+        // No nulls please
+        if (context == null) {
+            throw new ArithmeticException("A non-null context is needed.");
+        }
+        int work = BinaryContext.from(context).getBits() + GUARD_BITS;
+        BigInteger a0 = a(0);
+        // The sum is about as large as the first term, until shown otherwise
+        int scale = work - (a0.signum() == 0 ? 0 : a0.bitLength() - 1);
+        BigInteger fixed = sumFixed(scale, checkpoint);
+        for (int extra = 0; extra < work; ) {
+            int deficit = work - fixed.bitLength();
+            if (deficit <= 0) {
+                break;
+            }
+            extra += deficit;
+            long terms = terms(scale + 2);
+            scale += deficit;
+            fixed = sumFixed(scale, checkpoint);
+            if (checkpoint != null && terms != terms(scale + 2)) {
+                // The saved result of the shorter sum is of no further use
+                checkpoint.delete(RatioSplitter.name(this, 1, terms));
+            }
+        }
+        return Rational.valueOf(fixed).scaleByPowerOfTwo(-scale);
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * The MIT License (MIT)
+ * ---------------------
+ *
+ * Copyright (c) 2015-2016 Cristatus Solutions
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+ * NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR
+ * THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cristatus.core.utils;
+
+import cristatus.core.Rational;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+/**
+ * This class acts as the access point for the calculation of the natural
+ * logarithm to high precision, with the help of the arithmetic-geometric
+ * mean (AGM).
+ * <p>
+ * For a large enough s, ln s = &pi; / (2 AGM(1, 4/s)), with a relative
+ * error of the order of 1/s<sup>2</sup>. The argument x is therefore first
+ * multiplied by a power of 2, so that s = x 2<sup>m</sup> &gt;
+ * 2<sup>p/2</sup> for a precision of p bits, and then
+ * ln x = ln s - m ln 2.
+ * <p>
+ * The AGM converges quadratically, so that only about log<sub>2</sub>(p)
+ * square roots and multiplications at the full precision are needed. This
+ * makes the cost quasi-linear in the precision, whereas that of a series
+ * is quadratic.
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class LogGenerator {
+
+    // The number of guard digits for the calculations
+    private static final int GUARD_DIGITS = 10;
+
+    private static final double LOG10_2 = Math.log10(2);
+    private static final double LN2 = Math.log(2);
+    private static final BigDecimal TWO = BigDecimal.valueOf(2);
+    private static final BigDecimal FOUR = BigDecimal.valueOf(4);
+    private static final BigDecimal HALF = BigDecimal.valueOf(5, 1);
+
+    /**
+     * This method returns the natural logarithm of the given argument,
+     * approximated to (at least) the desired precision.
+     *
+     * @param x       The (positive) argument.
+     * @param context The {@link MathContext} to specify the precision of
+     *                calculation.
+     * @return The natural logarithm of the argument with the desired
+     * precision.
+     * @throws ArithmeticException If the context is {@code null}, or if the
+     *                             argument is not positive.
+     */
+    public static Rational obtainRational(final Rational x,
+                                          final MathContext context)
+            throws ArithmeticException {
+        return evaluate(x, context).getValue();
+    }
+
+    /**
+     * This method returns the natural logarithm of the given argument,
+     * approximated to (at least) the desired precision, along with the
+     * number of iterations of the AGM. The iterations stop as soon as the
+     * two means agree to half the precision, which may be before the number
+     * bounded in advance from their initial ratio.
+     *
+     * @param x       The (positive) argument.
+     * @param context The {@link MathContext} to specify the precision of
+     *                calculation.
+     * @return The natural logarithm of the argument with the desired
+     * precision, and the number of iterations.
+     * @throws ArithmeticException If the context is {@code null}, or if the
+     *                             argument is not positive.
+     * @see #obtainRational(Rational, MathContext)
+     */
+    public static SeriesResult<Rational> evaluate(final Rational x,
+                                                  final MathContext context)
+            throws ArithmeticException {
+        // The guard digits are kept, for further calculations
+        SeriesResult<BigDecimal> log = agmLog(x, context);
+        return log.withValue(Rational.valueOf(log.getValue()));
+    }
+
+    /**
+     * This method returns the natural logarithm of the given argument,
+     * approximated to the desired precision, as a {@link BigDecimal}.
+     *
+     * @param x       The (positive) argument.
+     * @param context The {@link MathContext} to specify the precision of
+     *                calculation.
+     * @return The natural logarithm of the argument rounded according to the
+     * given context.
+     * @throws ArithmeticException If the context is {@code null}, or if the
+     *                             argument is not positive.
+     */
+    public static BigDecimal obtainDecimal(final Rational x,
+                                           final MathContext context)
+            throws ArithmeticException {
+        return agmLog(x, context).getValue().round(context);
+    }
+
+    /**
+     * Calculates the natural logarithm of the given argument with the AGM,
+     * with a few guard digits in addition to the given precision.
+     *
+     * @param x       The (positive) argument.
+     * @param context The precision required.
+     * @return The natural logarithm of the argument, unrounded, and the
+     * number of iterations of the AGM.
+     * @throws ArithmeticException If the context is {@code null}, or if the
+     *                             argument is not positive.
+     */
+    private static SeriesResult<BigDecimal> agmLog(final Rational x,
+                                     final MathContext context)
+            throws ArithmeticException {
+        // No nulls please
+        if (context == null) {
+            throw new ArithmeticException("A non-null context is needed.");
+        }
+        if (x.signum() <= 0) {
+            throw new ArithmeticException("Logarithm of a non-positive number.");
+        }
+        Rational delta = x.subtract(Rational.ONE);
+        if (delta.signum() == 0) {
+            return new SeriesResult<>(BigDecimal.ZERO, 0, 0);
+        }
+        // The digits lost to cancellation when x is close to 1
+        int close = delta.getDenominator().bitLength()
+                - delta.getNumerator().bitLength();
+        int guard = GUARD_DIGITS + (int) (Math.max(close, 0) * LOG10_2);
+        int bits = BinaryContext.bitsFor(context.getPrecision() + guard);
+        // ln s and m ln 2 are about as large as the number of bits
+        guard += (int) Math.log10(bits);
+        MathContext work = Helper.expandContext(context, guard);
+
+        // s = x 2^m must exceed 2^(bits / 2)
+        int exponent = x.getNumerator().bitLength()
+                - x.getDenominator().bitLength();
+        int m = (bits >>> 1) + 4 - exponent;
+        BigDecimal s = x.scaleByPowerOfTwo(m).toBigDecimal(work);
+
+        BigDecimal pi = PiGenerator.obtainDecimal(work);
+        SeriesResult<BigDecimal> mean
+                = agm(BigDecimal.ONE, FOUR.divide(s, work), work);
+        BigDecimal logS = pi.divide(mean.getValue().multiply(TWO), work);
+        BigDecimal ln2 = Constants.obtainLn2(work);
+        return mean.withValue(logS.subtract(ln2.multiply(BigDecimal.valueOf(m))));
+    }
+
+    /**
+     * Returns the arithmetic-geometric mean of the given positive numbers.
+     * The arithmetic and the geometric means replace the two numbers until
+     * their arithmetic mean is correct to the given precision.
+     * <p>
+     * While the ratio r of the two numbers is above 2, every iteration
+     * replaces it by at most &radic;r. After that, r - 1 falls from e to at
+     * most e<sup>2</sup> / 8 with every iteration. This bounds the number
+     * of iterations in advance.
+     *
+     * @param a       The first number.
+     * @param b       The second number.
+     * @param context The precision of the calculations.
+     * @return The arithmetic-geometric mean of the numbers, and the number
+     * of iterations.
+     */
+    private static SeriesResult<BigDecimal> agm(BigDecimal a, BigDecimal b,
+                                                final MathContext context) {
+        int digits = (context.getPrecision() >>> 1) + 1;
+        // log2 of an upper bound of the ratio of the numbers
+        double ratio = (Math.abs(magnitude(a) - magnitude(b)) + 1) / LOG10_2;
+        long bound = (ratio > 1 ? (long) Math.ceil(Math.log(ratio) / LN2) : 0)
+                + (long) Math.ceil(Math.log(digits / LOG10_2 / 3 + 1) / LN2)
+                + 1;    // One more for the rounding
+        for (long i = 0; ; i++) {
+            BigDecimal mean = a.add(b).multiply(HALF, context);
+            // Once they agree to half the precision, the next arithmetic
+            // mean is correct to the full precision
+            BigDecimal tolerance = a.movePointLeft(digits);
+            if (a.subtract(b).abs().compareTo(tolerance) <= 0) {
+                return new SeriesResult<>(mean, i, bound);
+            }
+            b = BigMath.sqrt(a.multiply(b, context), context).round(context);
+            a = mean;
+        }
+    }
+
+    /**
+     * Returns the exponent of the leading digit of the given positive number,
+     * i.e. the floor of its common logarithm.
+     *
+     * @param x The positive number.
+     * @return The exponent of the leading digit of the number.
+     */
+    private static int magnitude(final BigDecimal x) {
+        return x.precision() - x.scale() - 1;
+    }
+}
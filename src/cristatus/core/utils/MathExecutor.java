@@ -0,0 +1,180 @@
+/*
+ * The MIT License (MIT)
+ * ---------------------
+ *
+ * Copyright (c) 2015-2016 Cristatus Solutions
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+ * NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR
+ * THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cristatus.core.utils;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * This class manages the {@link ForkJoinPool} on which all the parallel
+ * computations of the library (factorials, constants, series) are run.
+ * <p>
+ * By default, the {@link ForkJoinPool#commonPool() common pool} is used,
+ * so that no threads are created by the library itself. Applications that
+ * need to isolate or bound the resources used by the library, such as
+ * multi-tenant services, may either supply a pool of their own through
+ * {@link #setPool(ForkJoinPool)} or ask for a dedicated pool with bounded
+ * parallelism through {@link #setParallelism(int)}.
+ * <p>
+ * Note that the tasks of this library are {@link ForkJoinTask}s, which can
+ * only be forked on a ForkJoinPool. The library may however be <i>called</i>
+ * from any kind of thread; the calling thread simply waits for the result.
+ * <p>
+ * This class is thread-safe. A change of the pool affects only the
+ * computations that are started afterwards; a dedicated pool that has been
+ * replaced is shut down once the computations still running on it are over.
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+@SuppressWarnings("WeakerAccess")
+public final class MathExecutor {
+
+    // The pool in use; volatile, as it is read without locking
+    private static volatile Lease lease
+            = new Lease(ForkJoinPool.commonPool(), false);
+
+    private MathExecutor() {
+        // No instances
+    }
+
+    /**
+     * Returns the {@link ForkJoinPool} currently used by the library.
+     *
+     * @return The pool currently in use.
+     */
+    public static ForkJoinPool getPool() {
+        return lease.pool;
+    }
+
+    /**
+     * Makes the library use the given pool. The caller retains the
+     * ownership of the pool, and is responsible for shutting it down once
+     * it is no longer in use.
+     *
+     * @param newPool The pool to use.
+     * @throws IllegalArgumentException If the argument is {@code null}.
+     */
+    public static synchronized void setPool(final ForkJoinPool newPool)
+            throws IllegalArgumentException {
+        if (newPool == null)
+            throw new IllegalArgumentException("Null pool.");
+        replace(newPool, false);
+    }
+
+    /**
+     * Makes the library use a dedicated pool with the given parallelism.
+     * The pool is owned by the library, and is shut down as soon as it is
+     * replaced.
+     *
+     * @param parallelism The maximum number of worker threads.
+     * @throws IllegalArgumentException If the parallelism is not positive.
+     */
+    public static synchronized void setParallelism(final int parallelism)
+            throws IllegalArgumentException {
+        if (parallelism <= 0)
+            throw new IllegalArgumentException("Non-positive parallelism.");
+        replace(new ForkJoinPool(parallelism), true);
+    }
+
+    /**
+     * Makes the library go back to using the common pool.
+     */
+    public static synchronized void reset() {
+        replace(ForkJoinPool.commonPool(), false);
+    }
+
+    private static void replace(final ForkJoinPool newPool,
+                                final boolean newOwned) {
+        Lease oldLease = lease;
+        lease = new Lease(newPool, newOwned);
+        // A pool must not be shut down while a call may still submit to it
+        oldLease.retired = true;
+        if (oldLease.users == 0) {
+            oldLease.close();
+        }
+    }
+
+    private static synchronized Lease acquire() {
+        Lease current = lease;
+        current.users++;
+        return current;
+    }
+
+    private static synchronized void release(final Lease current) {
+        if (--current.users == 0 && current.retired) {
+            current.close();
+        }
+    }
+
+    /**
+     * Runs the given task on the pool in use and returns its result. If the
+     * calling thread is itself a worker of that pool (as with nested
+     * computations), the task is run directly in it.
+     *
+     * @param task The task to run.
+     * @param <T>  The type of the result.
+     * @return The result of the task.
+     */
+    static <T> T invoke(final ForkJoinTask<T> task) {
+        Lease current = acquire();
+        try {
+            if (ForkJoinTask.getPool() == current.pool) {
+                return task.invoke();
+            }
+            return current.pool.invoke(task);
+        } finally {
+            release(current);
+        }
+    }
+
+    /**
+     * A pool, along with the number of calls to {@link #invoke(ForkJoinTask)}
+     * that are using it. The mutable fields are guarded by the lock on
+     * {@link MathExecutor}.
+     */
+    private static final class Lease {
+        final ForkJoinPool pool;
+        // Whether the pool was created (and must be shut down) by us
+        final boolean owned;
+        int users;
+        boolean retired;
+
+        Lease(final ForkJoinPool pool, final boolean owned) {
+            this.pool = pool;
+            this.owned = owned;
+        }
+
+        /**
+         * Shuts the pool down if it is owned by the library.
+         */
+        void close() {
+            if (owned) {
+                pool.shutdown();
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * The MIT License (MIT)
+ * ---------------------
+ *
+ * Copyright (c) 2015-2016 Cristatus Solutions
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+ * NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR
+ * THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cristatus.core.utils;
+
+/**
+ * This class acts as the access point for obtaining the digits of &pi; at
+ * a given position, without the digits before it.
+ * <p>
+ * The hexadecimal digits are extracted with the Bailey-Borwein-Plouffe
+ * formula:
+ * <pre>
+ *     &pi; = &sum; (k &ge; 0) 16<sup>-k</sup> (4/(8k + 1) - 2/(8k + 4) - 1/(8k + 5) - 1/(8k + 6))
+ * </pre>
+ * The fractional part of 16<sup>n</sup> &pi; needs only the residues of
+ * 16<sup>n - k</sup> modulo 8k + j for the first n + 1 terms, and a few
+ * more terms after them. Hence, the digits at the position n + 1 take
+ * O(n log n) time and constant memory, with the terms summed in parallel
+ * (see {@link BbpSplitter}).
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class PiDigitGenerator {
+
+    /**
+     * The largest position of a hexadecimal digit that can be extracted.
+     * The moduli 8k + j must stay below 2<sup>32</sup>, so that their
+     * products can be reduced with {@code long} arithmetic.
+     */
+    public static final long MAX_HEX_POSITION = 1L << 29;
+
+    // The number of terms after the first n + 1 that affect 64 bits
+    private static final int TAIL_TERMS = 15;
+
+    /**
+     * This method returns the hexadecimal digits of &pi; starting at the
+     * given position after the (hexadecimal) point. The position 1 is that
+     * of the first digit, 2, in &pi; = 3.243F6A88...
+     * <p>
+     * About 8 digits are obtained from each evaluation of the formula; a
+     * longer block takes a proportionally longer time.
+     *
+     * @param position The position of the first digit, starting from 1.
+     * @param count    The number of digits needed.
+     * @return The digits, in upper case.
+     * @throws IllegalArgumentException If the position is not positive, if
+     *                                  the count is negative, or if the
+     *                                  last digit lies beyond
+     *                                  {@link #MAX_HEX_POSITION}.
+     * @throws ArithmeticException      If the digits cannot be resolved at
+     *                                  some position, which is only possible
+     *                                  in a run of about 8 digits that are
+     *                                  all 0 or all F.
+     */
+    public static String obtainHexDigits(final long position, final int count)
+            throws IllegalArgumentException, ArithmeticException {
+        if (position < 1)
+            throw new IllegalArgumentException("Non-positive position.");
+        if (count < 0)
+            throw new IllegalArgumentException("Negative count.");
+        if (position - 1 + count > MAX_HEX_POSITION)
+            throw new IllegalArgumentException("Position too large.");
+        StringBuilder builder = new StringBuilder(count);
+        long next = position;
+        while (builder.length() < count) {
+            String digits = extract(next - 1);
+            if (digits.isEmpty()) {
+                throw new ArithmeticException(
+                        "The digits at position " + next + " cannot be resolved."
+                );
+            }
+            int needed = count - builder.length();
+            builder.append(digits, 0, Math.min(needed, digits.length()));
+            next += digits.length();
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Returns the leading hexadecimal digits of the fractional part of
+     * 16<sup>n</sup> &pi;, as many as the accumulated error allows.
+     *
+     * @param n The power of 16.
+     * @return The digits that are certain; possibly none.
+     */
+    private static String extract(final long n) {
+        long sum = MathExecutor.invoke(new BbpSplitter(n, 0, n + 1));
+        // The terms after n: 16^-t / (8k + j), with k = n + t
+        for (int t = 1; t <= TAIL_TERMS; t++) {
+            long power = 1L << (64 - (t << 2));
+            long m = (n + t) << 3;
+            sum += (power / (m + 1)) << 2;
+            sum -= (power / (m + 4)) << 1;
+            sum -= power / (m + 5);
+            sum -= power / (m + 6);
+        }
+        // Every term is short by less than 8 units; the rest of the tail by
+        // less than 1
+        long error = ((n + 1 + TAIL_TERMS) << 3) + 1;
+        long low = sum - error;
+        long high = sum + error;
+        if (Long.compareUnsigned(low, sum) > 0
+                || Long.compareUnsigned(high, sum) < 0) {
+            // The interval wraps around 0: not even the first digit is known
+            return "";
+        }
+        // Keep the digits that are the same at both ends of the interval
+        int digits = Long.numberOfLeadingZeros(low ^ high) >>> 2;
+        if (digits == 0) {
+            return "";
+        }
+        long prefix = low >>> (64 - (digits << 2));
+        String hex = Long.toHexString(prefix).toUpperCase();
+        StringBuilder builder = new StringBuilder(digits);
+        for (int i = hex.length(); i < digits; i++) {
+            builder.append('0');
+        }
+        return builder.append(hex).toString();
+    }
+}
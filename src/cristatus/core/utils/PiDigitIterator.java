@@ -0,0 +1,130 @@
+/*
+ * The MIT License (MIT)
+ * ---------------------
+ *
+ * Copyright (c) 2015-2016 Cristatus Solutions
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+ * NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR
+ * THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cristatus.core.utils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * This is an unbounded {@link PrimitiveIterator.OfInt} over the decimal
+ * digits of &pi;: 3, 1, 4, 1, 5, 9, ...
+ * <p>
+ * The digits are produced in chunks. For every chunk, &pi; is obtained
+ * (through the cache of {@link PiGenerator}) with twice the precision of
+ * the previous one, so the first digits are available almost at once, and
+ * all the digits up to a position cost about twice as much as a single
+ * calculation up to it. Only the new digits of a chunk are kept, and only
+ * those that no rounding error in the last place can change are released.
+ * <p>
+ * Instances of this class are not thread-safe.
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+class PiDigitIterator implements PrimitiveIterator.OfInt {
+
+    /**
+     * The default precision of the first chunk.
+     */
+    static final int INITIAL_PRECISION = 32;
+
+    private final int initialPrecision;
+
+    private String chunk = "";      // The digits not yet released
+    private int index = 0;          // The index of the next digit in the chunk
+    private int released = 0;       // The number of digits released so far
+    private int precision = 0;      // The precision of the last chunk
+
+    /**
+     * Creates a new iterator whose first chunk has the given precision.
+     *
+     * @param initialPrecision The (positive) precision of the first chunk.
+     */
+    PiDigitIterator(final int initialPrecision) {
+        this.initialPrecision = initialPrecision;
+    }
+
+    /**
+     * Returns {@code true}, as &pi; has infinitely many digits.
+     *
+     * @return {@code true}.
+     */
+    @Override
+    public boolean hasNext() {
+        return true;
+    }
+
+    /**
+     * Returns the next digit of &pi;, calculating the next chunk if needed.
+     *
+     * @return The next digit.
+     * @throws NoSuchElementException If the precision of a chunk would
+     *                                exceed the range of an {@code int}.
+     */
+    @Override
+    public int nextInt() throws NoSuchElementException {
+        while (index == chunk.length()) {
+            nextChunk();
+        }
+        return chunk.charAt(index++) - '0';
+    }
+
+    /**
+     * Obtains &pi; to twice the precision, and keeps the digits after the
+     * ones released so far that are certain. If the digits of the value v
+     * form the integer N, and v is within one unit in the last place of
+     * &pi;, then the digits of &pi; lie strictly between those of N - 1 and
+     * N + 1. So, the digits certain are the ones that N - 1 and N + 1 have
+     * in common. A carry from the rounding (say, of ...34999 to ...35000)
+     * makes the digit before the run of 0s uncertain as well.
+     *
+     * @throws NoSuchElementException If the precision would exceed the range
+     *                                of an {@code int}.
+     */
+    private void nextChunk() throws NoSuchElementException {
+        if (precision > Integer.MAX_VALUE >>> 1) {
+            throw new NoSuchElementException("Too many digits.");
+        }
+        precision = precision == 0 ? initialPrecision : precision << 1;
+        BigDecimal pi = PiGenerator.obtainDecimal(new MathContext(precision));
+        BigInteger value = pi.movePointRight(precision - 1).toBigInteger();
+        String digits = value.toString();
+        String lower = value.subtract(BigInteger.ONE).toString();
+        String upper = value.add(BigInteger.ONE).toString();
+        // The common prefix of N - 1 and N + 1 (which have as many digits
+        // as N, as pi is not close to a power of 10)
+        int end = 0;
+        while (end < digits.length() && lower.charAt(end) == upper.charAt(end)) {
+            end++;
+        }
+        chunk = end > released ? digits.substring(released, end) : "";
+        index = 0;
+        released = Math.max(released, end);
+    }
+}
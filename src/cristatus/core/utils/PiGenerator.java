@@ -28,10 +28,13 @@ package cristatus.core.utils;
 import cristatus.core.Rational;
 
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.math.MathContext;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.concurrent.ForkJoinPool;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
 
 /**
  * This class acts as the access point for the &pi; approximation system.
@@ -43,47 +46,243 @@ import java.util.concurrent.ForkJoinPool;
 public class PiGenerator {
 
     // The cache to store the computed value of pi, for reuse.
-    private static Map<MathContext, Rational> PI_CACHE = new HashMap<>(10);
+    private static final ConstantCache PI_CACHE
+            = new ConstantCache(context -> chudnovsky(context, null));
+
+    // The Chudnovsky series: a(k) = 13591409 + 545140134k,
+    // p(k) = -(6k - 5)(2k - 1)(6k - 1), q(k) = k^3 640320^3 / 24
+    private static final HypergeometricSeries CHUDNOVSKY
+            = new HypergeometricSeries(
+            HypergeometricSeries.polynomial(13591409, 545140134),
+            HypergeometricSeries.polynomial(5, -46, 108, -72),
+            HypergeometricSeries.polynomial(0, 0, 0, 10939058860032000L)
+    );
+    // Each term of the Ramanujan series adds log10(396^4 / 256) digits
+    private static final double RAMANUJAN_DIGITS_PER_TERM = 7.982540778390199;
+    // The number of guard digits for the final square root and division
+    private static final int GUARD_DIGITS = 10;
+    // The number of guard bits for Machin's formula
+    private static final int GUARD_BITS = 32;
+
+    // Frequently used constants
+    private static final BigDecimal _10005 = BigDecimal.valueOf(10005);
+    private static final BigInteger _426880 = BigInteger.valueOf(426880);
+    private static final BigInteger _5 = BigInteger.valueOf(5);
+    private static final BigInteger _239 = BigInteger.valueOf(239);
 
     /**
      * This method returns &pi; approximated to the desired precision. It
-     * implements the Ramanujan formula in parallel to generate more digits
-     * of the constant.
+     * implements the Chudnovsky formula by binary splitting, in parallel.
+     * Only one square root and one division at the full precision are
+     * needed at the end.
+     * <p>
+     * The most precise value generated so far is cached, and all requests
+     * for lower precisions are served by rounding it.
      *
      * @param context The {@link MathContext} to specify the precision of
      *                calculation.
-     * @return &pi; with the desired precision.
+     * @return &pi; rounded according to the given context.
      */
     public static Rational obtainRational(MathContext context) {
+        return Rational.valueOf(obtainDecimal(context));
+    }
+
+    /**
+     * This method returns &pi; approximated to the desired precision as a
+     * {@link BigDecimal}, which is the form best suited to further
+     * calculations with {@link BigDecimal}s.
+     *
+     * @param context The {@link MathContext} to specify the precision of
+     *                calculation.
+     * @return &pi; rounded according to the given context.
+     * @see #obtainRational(MathContext)
+     */
+    public static BigDecimal obtainDecimal(MathContext context) {
         // No nulls please
         if (context == null) {
             throw new ArithmeticException("A non-null context is needed.");
         }
+        // Escape calculation altogether for under 16 digits of precision
+        if (context.getPrecision() <= MathContext.DECIMAL64.getPrecision()) {
+            return BigDecimal.valueOf(Math.PI).round(context);
+        }
         // Generation is expensive... use a cache
-        if (PI_CACHE.containsKey(context)) {
-            return PI_CACHE.get(context);
+        return PI_CACHE.getDecimal(context);
+    }
+
+    /**
+     * This method returns &pi; approximated to the desired precision, saving
+     * the partial results of the binary splitting to the given checkpoint.
+     * It is meant for very long calculations (of many millions of digits):
+     * if one is interrupted, calling this method again with the same
+     * checkpoint resumes it from the ranges of terms that were completed.
+     * <p>
+     * The value is calculated afresh, without the cache.
+     *
+     * @param context    The {@link MathContext} to specify the precision of
+     *                   calculation.
+     * @param checkpoint The checkpoint to save the progress to.
+     * @return &pi; rounded according to the given context.
+     * @throws ArithmeticException      If the context is {@code null}.
+     * @throws IllegalArgumentException If the checkpoint is {@code null}.
+     * @see Checkpoint
+     */
+    public static BigDecimal obtainDecimal(MathContext context,
+                                           Checkpoint checkpoint)
+            throws ArithmeticException, IllegalArgumentException {
+        // No nulls please
+        if (context == null) {
+            throw new ArithmeticException("A non-null context is needed.");
         }
-        // Escape calculation altogether for under 16 digits of precision
+        if (checkpoint == null)
+            throw new IllegalArgumentException("Null checkpoint.");
         if (context.getPrecision() <= MathContext.DECIMAL64.getPrecision()) {
-            BigDecimal pi = BigDecimal.valueOf(Math.PI).round(context);
-            return Rational.valueOf(pi);
+            return BigDecimal.valueOf(Math.PI).round(context);
+        }
+        MathContext work = Helper.expandContext(context, GUARD_DIGITS);
+        return chudnovsky(work, checkpoint).round(context);
+    }
+
+    /**
+     * This method returns an unbounded stream of the decimal digits of &pi;,
+     * starting with the 3 before the decimal point: 3, 1, 4, 1, 5, 9, ...
+     * <p>
+     * The digits are calculated in chunks of doubling precision, as they are
+     * consumed. Hence, the first digits are available almost at once, and
+     * the memory needed grows only with the number of digits consumed. The
+     * values calculated are shared with the cache of &pi;.
+     *
+     * @return A sequential stream of the digits of &pi;.
+     * @see #digitIterator()
+     */
+    public static IntStream digits() {
+        return StreamSupport.intStream(Spliterators.spliteratorUnknownSize(
+                digitIterator(),
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE
+        ), false);
+    }
+
+    /**
+     * This method returns an unbounded iterator over the decimal digits of
+     * &pi;, starting with the 3 before the decimal point. It is not
+     * thread-safe, but any number of iterators may be used concurrently.
+     *
+     * @return An iterator over the digits of &pi;.
+     * @see #digits()
+     */
+    public static PrimitiveIterator.OfInt digitIterator() {
+        return new PiDigitIterator(PiDigitIterator.INITIAL_PRECISION);
+    }
+
+    /**
+     * This method returns an unbounded iterator over the decimal digits of
+     * &pi;, whose first chunk is calculated with the given precision. A
+     * larger first chunk suits callers that need many digits at once; a
+     * smaller one gives the first digits sooner.
+     *
+     * @param initialPrecision The precision of the first chunk.
+     * @return An iterator over the digits of &pi;.
+     * @throws IllegalArgumentException If the precision is not positive.
+     * @see #digitIterator()
+     */
+    public static PrimitiveIterator.OfInt digitIterator(int initialPrecision)
+            throws IllegalArgumentException {
+        if (initialPrecision <= 0)
+            throw new IllegalArgumentException("Non-positive precision.");
+        return new PiDigitIterator(initialPrecision);
+    }
+
+    /**
+     * Returns &pi; with the given number of bits after the binary point, for
+     * calculations on binary fixed-point numbers.
+     *
+     * @param bits The number of bits after the binary point.
+     * @return The value of 2<sup>bits</sup> &pi;, truncated.
+     */
+    static BigInteger obtainFixed(final int bits) {
+        return Constants.fixed(
+                obtainDecimal(new BinaryContext(bits + 8).toMathContext()), bits
+        );
+    }
+
+    /**
+     * Generates &pi; with the Chudnovsky formula. This is the generator
+     * behind the cache.
+     *
+     * @param context    The precision of the result.
+     * @param checkpoint The checkpoint to use, or {@code null} for none.
+     * @return &pi; accurate to the given precision.
+     */
+    private static BigDecimal chudnovsky(MathContext context,
+                                         Checkpoint checkpoint) {
+        RatioSplitter.Result sum = CHUDNOVSKY.split(
+                CHUDNOVSKY.terms(BinaryContext.from(context).getBits()),
+                checkpoint
+        );
+
+        // pi = 426880 * sqrt(10005) * Q / T
+        MathContext workContext = Helper.expandContext(context, GUARD_DIGITS);
+        BigDecimal root = BigMath.sqrt(_10005, workContext);
+        BigDecimal numerator = new BigDecimal(sum.q.multiply(_426880))
+                .multiply(root, workContext);
+        return numerator.divide(new BigDecimal(sum.t), workContext);
+    }
+
+    /**
+     * This method returns &pi; approximated to the desired precision using
+     * Machin's formula:
+     * <pre>
+     *     &pi; = 16 atan(1/5) - 4 atan(1/239)
+     * </pre>
+     * where both the arc-tangents are summed exactly by binary splitting.
+     * Its results are not cached; it is kept as an independent formula for
+     * cross-checking.
+     *
+     * @param context The {@link MathContext} to specify the precision of
+     *                calculation.
+     * @return &pi; with the desired precision.
+     */
+    public static Rational obtainMachin(MathContext context) {
+        // No nulls please
+        if (context == null) {
+            throw new ArithmeticException("A non-null context is needed.");
+        }
+        int bits = BinaryContext.from(context).getBits() + GUARD_BITS;
+        BigInteger pi = AtanGenerator.atanRatio(BigInteger.ONE, _5, true, bits)
+                .shiftLeft(4)
+                .subtract(AtanGenerator.atanRatio(BigInteger.ONE, _239, true, bits)
+                        .shiftLeft(2));
+        return Rational.valueOf(pi).scaleByPowerOfTwo(-bits);
+    }
+
+    /**
+     * This method returns &pi; approximated to the desired precision using
+     * the Ramanujan formula. It is considerably slower than
+     * {@link #obtainRational(MathContext)} and its results are not cached;
+     * it is kept as an independent formula for cross-checking.
+     *
+     * @param context The {@link MathContext} to specify the precision of
+     *                calculation.
+     * @return &pi; with the desired precision.
+     */
+    public static Rational obtainRamanujan(MathContext context) {
+        // No nulls please
+        if (context == null) {
+            throw new ArithmeticException("A non-null context is needed.");
         }
         final int iterations
-                = (context.getPrecision() >>> 3)    // precision / 8
-                + (context.getPrecision() >>> 5);   // precision / 32
+                = (int) (context.getPrecision() / RAMANUJAN_DIGITS_PER_TERM) + 2;
         BigDecimal root2times2 = BigMath.sqrt(8, context);
         Rational frontConstant = Rational.valueOf(root2times2, 9801);
 
-        ForkJoinPool pool = new ForkJoinPool();
         MathContext newContext = Helper.expandContext(
                 context, context.getPrecision() << 1
         );
-        Rational sum = pool.invoke(new RamanujanAdder(0, iterations, newContext));
+        Rational sum = MathExecutor.invoke(new RamanujanAdder(
+                0, iterations, BinaryContext.from(newContext)
+        ));
 
         // Ramanujan's formula generates 1/pi
-        Rational pi = (frontConstant.multiply(sum)).reciprocate();
-        // Add the generated value to cache, for reuse later
-        PI_CACHE.put(context, pi);
-        return pi;
+        return (frontConstant.multiply(sum)).reciprocate();
     }
 }
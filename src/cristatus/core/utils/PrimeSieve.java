@@ -0,0 +1,311 @@
+/*
+ * The MIT License (MIT)
+ * ---------------------
+ *
+ * Copyright (c) 2015-2016 Cristatus Solutions
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+ * NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR
+ * THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cristatus.core.utils;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * This class acts as the access point for enumerating and counting primes,
+ * with a segmented sieve of Eratosthenes.
+ * <p>
+ * Only the odd numbers are sieved, one bit each. The range is processed in
+ * segments of {@link #SEGMENT_BITS} odd numbers (32 KiB), small enough to
+ * stay in the cache of the processor, so that the memory needed stays the
+ * same however large the range is: only the primes up to the square root
+ * of the upper limit are kept in full. The primes in a range are streamed
+ * one segment at a time, and {@link #primePi(long)} counts the segments in
+ * parallel (see {@link SieveCounter}).
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public final class PrimeSieve {
+
+    /**
+     * The largest upper limit that can be sieved: 2<sup>42</sup>, a little
+     * over 4 &times; 10<sup>12</sup>.
+     */
+    public static final long MAX_LIMIT = 1L << 42;
+
+    // The number of odd numbers in a segment
+    static final int SEGMENT_BITS = 1 << 18;
+
+    private PrimeSieve() {
+        // No instances
+    }
+
+    /**
+     * This method returns the primes up to and including the given limit,
+     * in increasing order.
+     *
+     * @param limit The upper limit.
+     * @return A sequential stream of the primes up to the limit.
+     * @throws IllegalArgumentException If the limit exceeds
+     *                                  {@link #MAX_LIMIT}.
+     * @see #primes(long, long)
+     */
+    public static LongStream primes(final long limit)
+            throws IllegalArgumentException {
+        return primes(2, limit);
+    }
+
+    /**
+     * This method returns the primes p with from &le; p &le; to, in
+     * increasing order. The range is sieved lazily, one segment at a time,
+     * as the stream is consumed.
+     *
+     * @param from The inclusive lower limit.
+     * @param to   The inclusive upper limit.
+     * @return A sequential stream of the primes in the range.
+     * @throws IllegalArgumentException If the lower limit is negative or if
+     *                                  the upper limit exceeds
+     *                                  {@link #MAX_LIMIT}.
+     */
+    public static LongStream primes(final long from, final long to)
+            throws IllegalArgumentException {
+        if (from < 0)
+            throw new IllegalArgumentException("Negative lower limit.");
+        checkLimit(to);
+        return StreamSupport.longStream(new PrimeSpliterator(from, to), false);
+    }
+
+    /**
+     * This method returns &pi;(n), the number of primes up to and including
+     * n. The segments are sieved in parallel, via the {@link MathExecutor}.
+     *
+     * @param n The upper limit.
+     * @return The number of primes up to n.
+     * @throws IllegalArgumentException If n exceeds {@link #MAX_LIMIT}.
+     */
+    public static long primePi(final long n) throws IllegalArgumentException {
+        checkLimit(n);
+        if (n < 2) {
+            return 0;
+        }
+        // The odd numbers up to n, and the prime 2
+        long bits = (n + 1) >>> 1;
+        long segments = (bits + SEGMENT_BITS - 1) / SEGMENT_BITS;
+        int[] basePrimes = oddPrimesUpto((int) sqrt(n));
+        return MathExecutor.invoke(
+                new SieveCounter(0, segments, bits, basePrimes)
+        ) + 1;
+    }
+
+    /**
+     * Returns all the odd primes up to and including n, in increasing order.
+     *
+     * @param n The upper limit.
+     * @return The odd primes up to n.
+     */
+    static int[] oddPrimesUpto(final int n) {
+        if (n < 3) {
+            return new int[0];
+        }
+        long bits = ((long) n + 1) >>> 1;
+        int[] basePrimes = n < SEGMENT_BITS
+                ? new int[0]
+                : oddPrimesUpto((int) sqrt(n));
+        // pi(n) < 1.25506 n / ln(n) for n > 1
+        int[] primes = new int[(int) (1.25506 * n / Math.log(n)) + 1];
+        int count = 0;
+        for (long first = 0; first < bits; first += SEGMENT_BITS) {
+            int size = (int) Math.min(SEGMENT_BITS, bits - first);
+            long[] words = n < SEGMENT_BITS
+                    ? sieveSmall(size)
+                    : sieve(first, size, basePrimes);
+            for (int i = 0; i < size; i++) {
+                if ((words[i >>> 6] & (1L << i)) == 0) {
+                    primes[count++] = (int) (((first + i) << 1) + 1);
+                }
+            }
+        }
+        return Arrays.copyOf(primes, count);
+    }
+
+    /**
+     * Sieves a segment of odd numbers. The bit i of the result stands for
+     * the odd number 2(first + i) + 1, and is set if that number is not a
+     * prime. The bits past the end of the segment are set as well.
+     *
+     * @param first      The index of the first odd number of the segment.
+     * @param size       The number of odd numbers in the segment.
+     * @param basePrimes The odd primes up to (at least) the square root of
+     *                   the last odd number of the segment.
+     * @return The bits of the segment, with the composites set.
+     */
+    static long[] sieve(final long first, final int size, final int[] basePrimes) {
+        long[] words = new long[(size + 63) >>> 6];
+        if ((size & 63) != 0) {
+            words[words.length - 1] = -1L << size;
+        }
+        if (first == 0) {
+            // 1 is not a prime
+            words[0] |= 1;
+        }
+        long low = (first << 1) + 1;
+        long high = low + ((size - 1L) << 1);
+        for (int p : basePrimes) {
+            long square = (long) p * p;
+            if (square > high) {
+                break;
+            }
+            // The first odd multiple of p in the segment, from p^2 on
+            long start = square >= low ? square : (low + p - 1) / p * p;
+            if ((start & 1) == 0) {
+                start += p;
+            }
+            for (long i = (start - low) >>> 1; i < size; i += p) {
+                words[(int) (i >>> 6)] |= 1L << i;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Sieves the first segment of odd numbers on its own, for the limits
+     * whose base primes lie within the segment itself.
+     *
+     * @param size The number of odd numbers.
+     * @return The bits of the segment, with the composites set.
+     */
+    private static long[] sieveSmall(final int size) {
+        long[] words = new long[(size + 63) >>> 6];
+        if ((size & 63) != 0) {
+            words[words.length - 1] = -1L << size;
+        }
+        words[0] |= 1;
+        for (long i = 1; (2 * i + 1) * (2 * i + 1) < 2L * size; i++) {
+            if ((words[(int) (i >>> 6)] & (1L << i)) != 0) continue;
+            long p = 2 * i + 1;
+            for (long j = (p * p) >>> 1; j < size; j += p) {
+                words[(int) (j >>> 6)] |= 1L << j;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Returns the integer square root of the given non-negative number.
+     *
+     * @param n The non-negative number.
+     * @return The largest integer whose square does not exceed n.
+     */
+    private static long sqrt(final long n) {
+        long root = (long) Math.sqrt(n);
+        while (root * root > n) root--;
+        while ((root + 1) * (root + 1) <= n) root++;
+        return root;
+    }
+
+    /**
+     * Checks the upper limit of a range.
+     *
+     * @param limit The upper limit.
+     * @throws IllegalArgumentException If it exceeds {@link #MAX_LIMIT}.
+     */
+    private static void checkLimit(final long limit)
+            throws IllegalArgumentException {
+        if (limit > MAX_LIMIT)
+            throw new IllegalArgumentException("Limit too large.");
+    }
+
+    /**
+     * A {@link Spliterator} over the primes in a range, which sieves the
+     * next segment only when the previous one is used up.
+     */
+    private static final class PrimeSpliterator
+            extends Spliterators.AbstractLongSpliterator {
+        private final long end;         // The exclusive index of the last odd number
+        private final int[] basePrimes;
+        private boolean two;            // Whether 2 is yet to be given
+        private long next;              // The index of the next segment
+        private long first;             // The index of the current segment
+        private long[] words = new long[0];
+        private int size = 0;
+        private int position = 0;
+
+        /**
+         * Creates a new PrimeSpliterator for the primes in [from, to].
+         *
+         * @param from The non-negative inclusive lower limit.
+         * @param to   The inclusive upper limit.
+         */
+        PrimeSpliterator(final long from, final long to) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.DISTINCT
+                    | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+            two = from <= 2 && to >= 2;
+            next = from >>> 1;
+            end = to < 1 ? 0 : (to + 1) >>> 1;
+            basePrimes = oddPrimesUpto((int) sqrt(Math.max(to, 0)));
+        }
+
+        /**
+         * Gives the next prime to the action, sieving the next segment if
+         * needed.
+         *
+         * @param action The action for the next prime.
+         * @return {@code false} if there are no more primes.
+         */
+        @Override
+        public boolean tryAdvance(final LongConsumer action) {
+            if (two) {
+                two = false;
+                action.accept(2);
+                return true;
+            }
+            while (true) {
+                while (position < size) {
+                    int index = position >>> 6;
+                    long free = ~words[index] & (-1L << position);
+                    if (free == 0) {
+                        position = (index + 1) << 6;
+                        continue;
+                    }
+                    int bit = (index << 6) + Long.numberOfTrailingZeros(free);
+                    if (bit >= size) {
+                        break;
+                    }
+                    position = bit + 1;
+                    action.accept(((first + bit) << 1) + 1);
+                    return true;
+                }
+                if (next >= end) {
+                    return false;
+                }
+                first = next;
+                size = (int) Math.min(SEGMENT_BITS, end - first);
+                words = sieve(first, size, basePrimes);
+                position = 0;
+                next = first + size;
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * The MIT License (MIT)
+ * ---------------------
+ *
+ * Copyright (c) 2015-2016 Cristatus Solutions
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+ * NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR
+ * THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cristatus.core.utils;
+
+import java.math.BigInteger;
+
+/**
+ * This class implements Peter Luschny's prime-swing algorithm for
+ * calculating factorials. It is based on the identity:
+ * <pre>
+ *     n! = ((n/2)!)<sup>2</sup> &times; n&#8768;
+ * </pre>
+ * where n&#8768; is the "swinging factorial" of n, whose prime factorisation
+ * can be written down directly: the exponent of every prime p in it is the
+ * number of odd values in the sequence &lfloor;n/p&rfloor;,
+ * &lfloor;n/p<sup>2</sup>&rfloor;, ... This way, the factorial is
+ * obtained from a few squarings and the products of comparatively few prime
+ * powers, which are carried out with {@link ProductTree}s.
+ * <p>
+ * All the factors of 2 are left out of the recursion and applied at the
+ * end with a single shift, since the exponent of 2 in n! is simply n minus
+ * the number of ones in the binary representation of n.
+ * <p>
+ * If a {@link Checkpoint} is given, the odd part of every factorial of at
+ * least {@link #CHECKPOINT_THRESHOLD} in the recursion is saved once it is
+ * complete, and so are the large subtrees of the products of the swinging
+ * factorials. A calculation repeated with the same checkpoint resumes from
+ * the largest factorial that was saved, and from the saved subtrees of the
+ * swinging factorial that was being calculated.
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+class PrimeSwing {
+
+    // The smallest argument whose odd factorial is saved to a checkpoint
+    static final int CHECKPOINT_THRESHOLD = 1 << 16;
+
+    // The odd parts of the factorials that fit in a long
+    private static final long[] SMALL_ODD_FACTORIALS = new long[21];
+
+    static {
+        long factorial = 1;
+        SMALL_ODD_FACTORIALS[0] = 1;
+        for (int i = 1; i < SMALL_ODD_FACTORIALS.length; i++) {
+            factorial *= i;
+            SMALL_ODD_FACTORIALS[i]
+                    = factorial >>> Long.numberOfTrailingZeros(factorial);
+        }
+    }
+
+    /**
+     * Returns the factorial of the given non-negative integer.
+     *
+     * @param n The verified non-negative integer.
+     * @return The factorial of n.
+     */
+    static BigInteger factorial(final int n) {
+        return factorial(n, null);
+    }
+
+    /**
+     * Returns the factorial of the given non-negative integer, saving the
+     * progress of the calculation to the given checkpoint.
+     *
+     * @param n          The verified non-negative integer.
+     * @param checkpoint The checkpoint to use, or {@code null} for none.
+     * @return The factorial of n.
+     */
+    static BigInteger factorial(final int n, final Checkpoint checkpoint) {
+        int[] primes = PrimeSieve.oddPrimesUpto(n);
+        return oddFactorial(n, primes, checkpoint)
+                .shiftLeft(n - Integer.bitCount(n));
+    }
+
+    /**
+     * Returns the odd part of n!, i.e. n! without any factors of 2.
+     *
+     * @param n          The integer whose factorial's odd part to calculate.
+     * @param primes     The odd primes up to (at least) n.
+     * @param checkpoint The checkpoint to use, or {@code null} for none.
+     * @return The odd part of n!.
+     */
+    private static BigInteger oddFactorial(final int n,
+                                           final int[] primes,
+                                           final Checkpoint checkpoint) {
+        if (n < SMALL_ODD_FACTORIALS.length) {
+            return BigInteger.valueOf(SMALL_ODD_FACTORIALS[n]);
+        }
+        boolean saved = checkpoint != null && n >= CHECKPOINT_THRESHOLD;
+        if (saved) {
+            BigInteger[] values = checkpoint.load(name(n), 1);
+            if (values != null) {
+                return values[0];
+            }
+        }
+        BigInteger half = oddFactorial(n >>> 1, primes, checkpoint);
+        ProductTree swing = oddSwing(n, primes)
+                .tree("factorial-swing-" + n, checkpoint);
+        BigInteger result = half.multiply(half)
+                .multiply(MathExecutor.invoke(swing));
+        if (saved) {
+            checkpoint.store(name(n), result);
+            checkpoint.delete(name(n >>> 1));
+            checkpoint.delete(swing.name());
+        }
+        return result;
+    }
+
+    /**
+     * Returns the name under which the odd part of n! is saved.
+     *
+     * @param n The integer whose factorial's odd part is saved.
+     * @return The name of the odd part of n! in a checkpoint.
+     */
+    private static String name(final int n) {
+        return "factorial-odd-" + n;
+    }
+
+    /**
+     * Returns the factors of the odd part of the swinging factorial of n.
+     *
+     * @param n      The integer whose swinging factorial to calculate.
+     * @param primes The odd primes up to (at least) n.
+     * @return The factors of the odd part of the swinging factorial of n.
+     */
+    private static ProductTree.Factors oddSwing(final int n,
+                                                final int[] primes) {
+        int sqrt = (int) Math.sqrt(n);
+        ProductTree.Factors factors = new ProductTree.Factors();
+        for (int prime : primes) {
+            if (prime > n) break;
+            if (prime > n / 2) {
+                // Only floor(n/p) = 1 contributes
+                factors.add(prime);
+            } else if (prime > sqrt) {
+                // Only floor(n/p) contributes
+                if (((n / prime) & 1) == 1) factors.add(prime);
+            } else {
+                long power = 1;
+                int q = n;
+                while ((q /= prime) > 0) {
+                    if ((q & 1) == 1) power *= prime;
+                }
+                if (power > 1) factors.add(power);
+            }
+        }
+        return factors;
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * The MIT License (MIT)
+ * ---------------------
+ *
+ * Copyright (c) 2015-2016 Cristatus Solutions
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+ * NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR
+ * THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cristatus.core.utils;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This is a subclass of {@link RecursiveTask} that multiplies a list of
+ * {@code long} factors together using a balanced binary product tree.
+ * <p>
+ * Multiplying a growing product by one small factor at a time never lets
+ * {@link BigInteger} use its faster (Karatsuba and Toom-Cook) algorithms.
+ * In a balanced tree, every multiplication is between two operands of
+ * similar sizes. The two halves of large lists are multiplied in parallel.
+ * <p>
+ * The factors are usually collected through a {@link Factors} list, which
+ * packs consecutive small factors into a single {@code long} word.
+ * <p>
+ * If a {@link Checkpoint} is given, the product of every range of at least
+ * {@link #CHECKPOINT_THRESHOLD} factors is saved once it is complete (and
+ * the products of its two halves are deleted), and a range whose product
+ * was saved before is loaded instead of being calculated again, just as
+ * with the ranges of terms of a {@link RatioSplitter}.
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+class ProductTree extends RecursiveTask<BigInteger> {
+
+    // If the number of factors is within the threshold, then the
+    // computation is carried out directly, instead of dividing it into two.
+    private static final int THRESHOLD = 512;
+    // The smallest range of factors whose product is saved to a checkpoint
+    static final int CHECKPOINT_THRESHOLD = 1 << 12;
+
+    private final long[] factors;
+    private final int start;    // The inclusive lower limit
+    private final int end;      // The exclusive upper limit
+    private final String key;   // The name of the list in a checkpoint
+    private final Checkpoint checkpoint;    // Possibly null
+
+    /**
+     * Creates a new ProductTree ready to be forked or invoked.
+     *
+     * @param factors The factors to multiply.
+     * @param start   The inclusive lower limit.
+     * @param end     The exclusive upper limit.
+     */
+    ProductTree(final long[] factors, final int start, final int end) {
+        this(factors, start, end, null, null);
+    }
+
+    /**
+     * Creates a new ProductTree ready to be forked or invoked, which saves
+     * its progress to the given checkpoint.
+     *
+     * @param factors    The factors to multiply.
+     * @param start      The inclusive lower limit.
+     * @param end        The exclusive upper limit.
+     * @param key        The name of the list of factors in the checkpoint.
+     * @param checkpoint The checkpoint to use, or {@code null} for none.
+     */
+    ProductTree(final long[] factors,
+                final int start,
+                final int end,
+                final String key,
+                final Checkpoint checkpoint) {
+        this.factors = factors;
+        this.start = start;
+        this.end = end;
+        this.key = key;
+        this.checkpoint = checkpoint;
+    }
+
+    /**
+     * Multiplies the factors in the given range with a balanced product tree
+     * in this thread.
+     *
+     * @param factors The factors to multiply.
+     * @param start   The inclusive lower limit.
+     * @param end     The exclusive upper limit.
+     * @return The product of the factors in the range: [start, end)
+     */
+    static BigInteger multiply(final long[] factors,
+                               final int start,
+                               final int end) {
+        switch (end - start) {
+            case 0:
+                return BigInteger.ONE;
+            case 1:
+                return BigInteger.valueOf(factors[start]);
+            case 2:
+                return BigInteger.valueOf(factors[start])
+                        .multiply(BigInteger.valueOf(factors[start + 1]));
+            default:
+                int mid = (start + end) >>> 1;
+                return multiply(factors, start, mid)
+                        .multiply(multiply(factors, mid, end));
+        }
+    }
+
+    /**
+     * This is the method that delegates control to the direct computation
+     * method if the threshold requirement is met, or subdivides the task
+     * into two separate tasks and executes them in parallel.
+     *
+     * @return The product of the factors in the range: [start, end),
+     * calculated in parallel.
+     */
+    @Override
+    protected BigInteger compute() {
+        if (end - start <= THRESHOLD) {
+            return multiply(factors, start, end);
+        }
+        boolean saved = checkpoint != null && end - start >= CHECKPOINT_THRESHOLD;
+        if (saved) {
+            BigInteger[] values = checkpoint.load(name(key, start, end), 1);
+            if (values != null) {
+                return values[0];
+            }
+        }
+        int mid = (start + end) >>> 1;
+        ProductTree task1 = new ProductTree(factors, start, mid, key, checkpoint);
+        ProductTree task2 = new ProductTree(factors, mid, end, key, checkpoint);
+        task1.fork();
+        BigInteger product = task2.compute().multiply(task1.join());
+        if (saved) {
+            checkpoint.store(name(key, start, end), product);
+            checkpoint.delete(name(key, start, mid));
+            checkpoint.delete(name(key, mid, end));
+        }
+        return product;
+    }
+
+    /**
+     * Returns the name under which the product of all the factors of this
+     * tree is saved, if it is large enough to be saved at all.
+     *
+     * @return The name of the whole range in a checkpoint.
+     */
+    String name() {
+        return name(key, start, end);
+    }
+
+    /**
+     * Returns the name under which the product of a range is saved.
+     *
+     * @param key The name of the list of factors.
+     * @param a   The inclusive lower limit.
+     * @param b   The exclusive upper limit.
+     * @return The name of the range in a checkpoint.
+     */
+    private static String name(final String key, final int a, final int b) {
+        return key + "-" + a + "-" + b;
+    }
+
+    /**
+     * A growable list of positive {@code long} factors. Consecutive factors
+     * are packed into a single word for as long as their product fits, so
+     * that the leaves of the tree are full machine words.
+     */
+    static final class Factors {
+        private long[] words = new long[16];
+        private int size = 0;
+        private long current = 1;
+
+        /**
+         * Appends a factor to the list.
+         *
+         * @param factor The positive factor to append.
+         */
+        void add(final long factor) {
+            if (current <= Long.MAX_VALUE / factor) {
+                current *= factor;
+                return;
+            }
+            push(current);
+            current = factor;
+        }
+
+        private void push(final long word) {
+            if (size == words.length) {
+                words = Arrays.copyOf(words, size << 1);
+            }
+            words[size++] = word;
+        }
+
+        /**
+         * Returns a ProductTree for all the factors added so far.
+         *
+         * @return A ProductTree ready to be forked or invoked.
+         */
+        ProductTree tree() {
+            return tree(null, null);
+        }
+
+        /**
+         * Returns a ProductTree for all the factors added so far, which saves
+         * its progress to the given checkpoint.
+         *
+         * @param key        The name of the list of factors in the checkpoint.
+         * @param checkpoint The checkpoint to use, or {@code null} for none.
+         * @return A ProductTree ready to be forked or invoked.
+         */
+        ProductTree tree(final String key, final Checkpoint checkpoint) {
+            if (current != 1) {
+                push(current);
+                current = 1;
+            }
+            return new ProductTree(words, 0, size, key, checkpoint);
+        }
+    }
+}
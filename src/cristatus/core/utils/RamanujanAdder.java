@@ -28,12 +28,21 @@ package cristatus.core.utils;
 import cristatus.core.Rational;
 
 import java.math.BigInteger;
-import java.math.MathContext;
 import java.util.concurrent.RecursiveTask;
 
 /**
  * This is a subclass of {@link RecursiveTask} that performs the calculations
  * that are key to the Ramanujan formula for generating the digits of &pi;.
+ * <p>
+ * The k-th term is f(k) (1103 + 26390k), where the factor
+ * <pre>
+ *     f(k) = (4k)! / ((k!)<sup>4</sup> 396<sup>4k</sup>)
+ * </pre>
+ * is calculated from factorials only once, at the start of each range, and
+ * then advanced by the ratio
+ * <pre>
+ *     f(k + 1) / f(k) = (4k + 1)(4k + 2)(4k + 3)(4k + 4) / ((k + 1)<sup>4</sup> 396<sup>4</sup>)
+ * </pre>
  *
  * @author Subhomoy Haldar
  * @version 1.0
@@ -52,15 +61,16 @@ class RamanujanAdder extends RecursiveTask<Rational> {
     private final int start;    // The inclusive lower limit
     private final int end;      // The exclusive upper limit
 
-    private final MathContext context;
+    private final BinaryContext context;
 
     /**
      * Creates a new RamanujanAdder ready to be forked or invoked.
      *
-     * @param start The inclusive lower limit.
-     * @param end   The exclusive lower limit.
+     * @param start   The inclusive lower limit.
+     * @param end     The exclusive lower limit.
+     * @param context The working precision for the partial sums.
      */
-    RamanujanAdder(final int start, final int end, final MathContext context) {
+    RamanujanAdder(final int start, final int end, final BinaryContext context) {
         this.start = start;
         this.end = end;
         this.context = context;
@@ -68,30 +78,38 @@ class RamanujanAdder extends RecursiveTask<Rational> {
 
     /**
      * The difference between the limits is within the threshold; compute the
-     * sum directly.
+     * sum directly. The factor f(k) is kept as a binary fixed-point number
+     * with the working precision, so that advancing it needs only a
+     * multiplication and a division by small integers. Each step truncates
+     * it by less than a unit in the last place.
      *
      * @return The sum for all values of k in the range: [start, end)
      */
     private Rational computeDirectly() {
-        BigInteger _26390k = _26390.multiply(BigInteger.valueOf(start));
-        BigInteger _24591257856pk = _24591257856.pow(start);
-
-        Rational sum = Rational.ZERO;
-
-        for (int k = start; k < end; k++) {
-            BigInteger num = Factorial.verified(BigInteger.valueOf(k << 2));
-            num = num.multiply(_1103.add(_26390k));
-
-            BigInteger den = Factorial.verified(BigInteger.valueOf(k)).pow(4);
-            den = den.multiply(_24591257856pk);
-
-            _26390k = _26390k.add(_26390);
-            _24591257856pk = _24591257856pk.multiply(_24591257856);
-
-            sum = sum.add(Rational.valueOf(num, den).dropTo(context));
-            sum = sum.dropTo(context);
+        int bits = context.getBits();
+        // f(start) = (4 start)! / ((start!)^4 396^(4 start)), scaled by 2^bits
+        BigInteger factor = Factorial.verified(BigInteger.valueOf((long) start << 2))
+                .shiftLeft(bits)
+                .divide(Factorial.verified(BigInteger.valueOf(start)).pow(4)
+                        .multiply(_24591257856.pow(start)));
+        BigInteger linear = _1103.add(_26390.multiply(BigInteger.valueOf(start)));
+
+        BigInteger sum = BigInteger.ZERO;
+
+        for (int k = start; k < end && factor.signum() != 0; k++) {
+            sum = sum.add(factor.multiply(linear));
+
+            // Advance to f(k + 1) and 1103 + 26390(k + 1)
+            long k4 = (long) k << 2;
+            BigInteger square = BigInteger.valueOf(k + 1L).pow(2);
+            factor = factor.multiply(BigInteger.valueOf(k4 + 1)
+                    .multiply(BigInteger.valueOf(k4 + 2))
+                    .multiply(BigInteger.valueOf(k4 + 3))
+                    .multiply(BigInteger.valueOf(k4 + 4)))
+                    .divide(square.multiply(square).multiply(_24591257856));
+            linear = linear.add(_26390);
         }
-        return sum;
+        return Rational.valueOf(sum).scaleByPowerOfTwo(-bits);
     }
 
     /**
@@ -107,7 +125,7 @@ class RamanujanAdder extends RecursiveTask<Rational> {
         if (end - start <= THRESHOLD) {
             return computeDirectly();
         }
-        int mid = start + (end >>> 1);
+        int mid = (start + end) >>> 1;
         RamanujanAdder adder1 = new RamanujanAdder(start, mid, context);
         RamanujanAdder adder2 = new RamanujanAdder(mid, end, context);
         adder1.fork();
@@ -0,0 +1,194 @@
+/*
+ * The MIT License (MIT)
+ * ---------------------
+ *
+ * Copyright (c) 2015-2016 Cristatus Solutions
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+ * NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR
+ * THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cristatus.core.utils;
+
+import java.math.BigInteger;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This is a subclass of {@link RecursiveTask} that evaluates, by binary
+ * splitting, a range of terms of a {@link HypergeometricSeries}:
+ * <pre>
+ *     S(a, b) = &sum; (k = a to b - 1) a(k) &prod; (j = a to k) p(j) / q(j)
+ * </pre>
+ * For a range of terms [a, b), the task computes three integers P(a, b),
+ * Q(a, b) and T(a, b), such that S(a, b) = T(a, b) / Q(a, b). Two adjacent
+ * ranges are combined as:
+ * <pre>
+ *     P(a, c) = P(a, b) P(b, c)
+ *     Q(a, c) = Q(a, b) Q(b, c)
+ *     T(a, c) = Q(b, c) T(a, b) + P(a, b) T(b, c)
+ * </pre>
+ * For a single term, P(k, k + 1) = p(k), Q(k, k + 1) = q(k) and
+ * T(k, k + 1) = a(k) p(k). The sum of the first n terms of the series is
+ * then a(0) + S(1, n).
+ * <p>
+ * If a {@link Checkpoint} is given, the result of every range of at least
+ * {@link #CHECKPOINT_THRESHOLD} terms is saved once it is complete (and
+ * the results of its two halves are deleted), and a range whose result was
+ * saved before is loaded instead of being calculated again.
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+class RatioSplitter extends RecursiveTask<RatioSplitter.Result> {
+
+    // If the difference between the limits is within the threshold, then the
+    // computation is carried out directly, instead of dividing it into two.
+    private static final long THRESHOLD = 1_000;
+    // The smallest range of terms whose result is saved to a checkpoint
+    static final long CHECKPOINT_THRESHOLD = 1 << 12;
+
+    private final HypergeometricSeries series;
+    private final long start;   // The inclusive lower limit
+    private final long end;     // The exclusive upper limit
+    private final Checkpoint checkpoint;    // Possibly null
+
+    /**
+     * The P, Q and T values for a range of terms.
+     */
+    static final class Result {
+        final BigInteger p;
+        final BigInteger q;
+        final BigInteger t;
+
+        Result(final BigInteger p, final BigInteger q, final BigInteger t) {
+            this.p = p;
+            this.q = q;
+            this.t = t;
+        }
+    }
+
+    /**
+     * Creates a new RatioSplitter ready to be forked or invoked.
+     *
+     * @param series The series to evaluate.
+     * @param start  The inclusive lower limit.
+     * @param end    The exclusive upper limit.
+     */
+    RatioSplitter(final HypergeometricSeries series,
+                  final long start,
+                  final long end) {
+        this(series, start, end, null);
+    }
+
+    /**
+     * Creates a new RatioSplitter ready to be forked or invoked, which saves
+     * its progress to the given checkpoint.
+     *
+     * @param series     The series to evaluate.
+     * @param start      The inclusive lower limit.
+     * @param end        The exclusive upper limit.
+     * @param checkpoint The checkpoint to use, or {@code null} for none.
+     */
+    RatioSplitter(final HypergeometricSeries series,
+                  final long start,
+                  final long end,
+                  final Checkpoint checkpoint) {
+        this.series = series;
+        this.start = start;
+        this.end = end;
+        this.checkpoint = checkpoint;
+    }
+
+    /**
+     * Combines the results of two adjacent ranges.
+     *
+     * @param left  The result for [a, b).
+     * @param right The result for [b, c).
+     * @return The result for [a, c).
+     */
+    private static Result combine(final Result left, final Result right) {
+        BigInteger p = left.p.multiply(right.p);
+        BigInteger q = left.q.multiply(right.q);
+        BigInteger t = right.q.multiply(left.t).add(left.p.multiply(right.t));
+        return new Result(p, q, t);
+    }
+
+    /**
+     * The difference between the limits is within the threshold; split the
+     * range recursively in this thread.
+     *
+     * @param a The inclusive lower limit.
+     * @param b The exclusive upper limit.
+     * @return The result for the range [a, b).
+     */
+    private Result computeDirectly(final long a, final long b) {
+        if (b - a == 1) {
+            BigInteger p = series.p(a);
+            return new Result(p, series.q(a), p.multiply(series.a(a)));
+        }
+        long mid = (a + b) >>> 1;
+        return combine(computeDirectly(a, mid), computeDirectly(mid, b));
+    }
+
+    /**
+     * This is the method that delegates control to the direct computation
+     * method if the threshold requirement is met, or subdivides the task
+     * into two separate tasks and executes them in parallel.
+     *
+     * @return The result for the range [start, end), calculated in parallel.
+     */
+    @Override
+    protected Result compute() {
+        if (end - start <= THRESHOLD) {
+            return computeDirectly(start, end);
+        }
+        boolean saved = checkpoint != null && end - start >= CHECKPOINT_THRESHOLD;
+        if (saved) {
+            BigInteger[] values = checkpoint.load(name(series, start, end), 3);
+            if (values != null) {
+                return new Result(values[0], values[1], values[2]);
+            }
+        }
+        long mid = (start + end) >>> 1;
+        RatioSplitter left = new RatioSplitter(series, start, mid, checkpoint);
+        RatioSplitter right = new RatioSplitter(series, mid, end, checkpoint);
+        left.fork();
+        Result rightResult = right.compute();
+        Result result = combine(left.join(), rightResult);
+        if (saved) {
+            checkpoint.store(name(series, start, end), result.p, result.q, result.t);
+            checkpoint.delete(name(series, start, mid));
+            checkpoint.delete(name(series, mid, end));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the name under which the result of a range is saved.
+     *
+     * @param series The series being evaluated.
+     * @param a      The inclusive lower limit.
+     * @param b      The exclusive upper limit.
+     * @return The name of the range in a checkpoint.
+     */
+    static String name(final HypergeometricSeries series,
+                       final long a,
+                       final long b) {
+        return series.key() + "-" + a + "-" + b;
+    }
+}
@@ -32,17 +32,22 @@ import java.util.concurrent.RecursiveTask;
  * This is a subclass of {@link RecursiveTask} that performs sequential
  * multiplications in parallel and thus providing a boost to performance.
  * This package private class is to be used for calculating factorials.
+ * <p>
+ * Within each range, consecutive integers are packed into {@code long}
+ * words for as long as their product fits, and the words are multiplied
+ * with a balanced {@link ProductTree}, so that the multiplications are
+ * between operands of similar sizes.
  *
  * @author Subhomoy Haldar
  * @version 1.0
  */
 class SequentialMultiplier extends RecursiveTask<BigInteger> {
-    private BigInteger start;   // The inclusive lower limit
-    private BigInteger end;     // The inclusive upper limit
+    private final long start;   // The inclusive lower limit
+    private final long end;     // The inclusive upper limit
 
     // If the difference between the limits is within the threshold, then the
     // computation is carried out directly, instead of dividing it into two.
-    private static final BigInteger THRESHOLD = BigInteger.valueOf(10_000L);
+    private static final long THRESHOLD = 10_000L;
 
     /**
      * Creates a new SequentialMultiplier ready to be forked or invoked.
@@ -50,24 +55,23 @@ class SequentialMultiplier extends RecursiveTask<BigInteger> {
      * @param start The inclusive lower limit.
      * @param end   The inclusive upper limit.
      */
-    SequentialMultiplier(final BigInteger start, final BigInteger end) {
+    SequentialMultiplier(final long start, final long end) {
         this.start = start;
         this.end = end;
     }
 
     /**
      * The difference between the limits is within the threshold; compute the
-     * product directly.
+     * product directly, with a balanced product tree of packed factors.
      *
      * @return The product of all integers in the range: [start, end]
      */
     private BigInteger computeDirectly() {
-        BigInteger product = BigInteger.ONE;
-        while (start.compareTo(end) <= 0) {
-            product = product.multiply(start);
-            start = start.add(BigInteger.ONE);
+        ProductTree.Factors factors = new ProductTree.Factors();
+        for (long i = start; i <= end; i++) {
+            factors.add(i);
         }
-        return product;
+        return factors.tree().invoke();
     }
 
     /**
@@ -81,11 +85,11 @@ class SequentialMultiplier extends RecursiveTask<BigInteger> {
     @Override
     protected BigInteger compute() {
         // The difference is within the threshold... compute directly.
-        if (end.subtract(start).compareTo(THRESHOLD) <= 0) {
+        if (end - start <= THRESHOLD) {
             return computeDirectly();
         }
-        BigInteger mid = start.add(end).shiftRight(1);  // (start + end) / 2
-        SequentialMultiplier task1 = new SequentialMultiplier(start, mid.subtract(BigInteger.ONE));
+        long mid = (start + end) >>> 1;
+        SequentialMultiplier task1 = new SequentialMultiplier(start, mid - 1);
         SequentialMultiplier task2 = new SequentialMultiplier(mid, end);
         task1.fork();
         return task2.compute().multiply(task1.join());
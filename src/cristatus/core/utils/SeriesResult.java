@@ -0,0 +1,119 @@
+/*
+ * The MIT License (MIT)
+ * ---------------------
+ *
+ * Copyright (c) 2015-2016 Cristatus Solutions
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+ * NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR
+ * THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cristatus.core.utils;
+
+/**
+ * The value of a series, along with the number of terms that were actually
+ * used to obtain it, and the number that was bounded in advance from the
+ * magnitude of the argument.
+ * <p>
+ * Series that are summed by binary splitting use exactly the number of
+ * terms bounded in advance. Series that are summed term by term stop as
+ * soon as a term vanishes at the working precision, which is often before
+ * the bound is reached. For the arithmetic-geometric mean, the "terms" are
+ * its iterations.
+ * <p>
+ * All instances of SeriesResult are <i>immutable</i>, as long as the value
+ * itself is not modified.
+ *
+ * @param <T> The type of the value.
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+@SuppressWarnings("WeakerAccess")
+public final class SeriesResult<T> {
+
+    private final T value;
+    private final long terms;
+    private final long bound;
+
+    /**
+     * Creates a new SeriesResult.
+     *
+     * @param value The value of the series.
+     * @param terms The number of terms actually used.
+     * @param bound The number of terms bounded in advance.
+     * @throws IllegalArgumentException If either count is negative.
+     */
+    public SeriesResult(final T value, final long terms, final long bound)
+            throws IllegalArgumentException {
+        if (terms < 0 || bound < 0)
+            throw new IllegalArgumentException("Negative count.");
+        this.value = value;
+        this.terms = terms;
+        this.bound = bound;
+    }
+
+    /**
+     * Returns the value of the series.
+     *
+     * @return The value of the series.
+     */
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the number of terms that were actually used.
+     *
+     * @return The number of terms actually used.
+     */
+    public long getTerms() {
+        return terms;
+    }
+
+    /**
+     * Returns the number of terms that was bounded in advance, from the
+     * magnitude of the argument.
+     *
+     * @return The number of terms bounded in advance.
+     */
+    public long getBound() {
+        return bound;
+    }
+
+    /**
+     * Returns a SeriesResult with the given value in place of this one's,
+     * and the same counts.
+     *
+     * @param newValue The new value.
+     * @param <U>      The type of the new value.
+     * @return A SeriesResult with the given value.
+     */
+    public <U> SeriesResult<U> withValue(final U newValue) {
+        return new SeriesResult<>(newValue, terms, bound);
+    }
+
+    /**
+     * Returns the counts, followed by the value.
+     *
+     * @return A String representation of this result.
+     */
+    @Override
+    public String toString() {
+        return terms + " of " + bound + " terms: " + value;
+    }
+}
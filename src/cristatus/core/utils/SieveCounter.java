@@ -0,0 +1,108 @@
+/*
+ * The MIT License (MIT)
+ * ---------------------
+ *
+ * Copyright (c) 2015-2016 Cristatus Solutions
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+ * NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR
+ * THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cristatus.core.utils;
+
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This is a subclass of {@link RecursiveTask} that counts the odd primes
+ * in a range of segments of the {@link PrimeSieve}, sieving the segments in
+ * parallel. Each task sieves its segments one at a time, so the memory
+ * needed is a single segment per thread.
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+class SieveCounter extends RecursiveTask<Long> {
+
+    // If the number of segments is within the threshold, then the
+    // computation is carried out directly, instead of dividing it into two.
+    private static final long THRESHOLD = 8;
+
+    private final long start;       // The inclusive first segment
+    private final long end;         // The exclusive last segment
+    private final long bits;        // The number of odd numbers in all
+    private final int[] basePrimes;
+
+    /**
+     * Creates a new SieveCounter ready to be forked or invoked.
+     *
+     * @param start      The inclusive first segment.
+     * @param end        The exclusive last segment.
+     * @param bits       The number of odd numbers in all the segments; the
+     *                   last segment may be shorter than the others.
+     * @param basePrimes The odd primes up to the square root of the largest
+     *                   odd number.
+     */
+    SieveCounter(final long start, final long end, final long bits,
+                 final int[] basePrimes) {
+        this.start = start;
+        this.end = end;
+        this.bits = bits;
+        this.basePrimes = basePrimes;
+    }
+
+    /**
+     * The number of segments is within the threshold; sieve them one by
+     * one and count the bits left clear.
+     *
+     * @return The number of odd primes in the segments.
+     */
+    private long computeDirectly() {
+        long count = 0;
+        for (long segment = start; segment < end; segment++) {
+            long first = segment * PrimeSieve.SEGMENT_BITS;
+            int size = (int) Math.min(PrimeSieve.SEGMENT_BITS, bits - first);
+            long[] words = PrimeSieve.sieve(first, size, basePrimes);
+            count += (long) words.length << 6;
+            for (long word : words) {
+                count -= Long.bitCount(word);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * This is the method that delegates control to the direct computation
+     * method if the threshold requirement is met, or subdivides the task
+     * into two separate tasks and executes them in parallel.
+     *
+     * @return The number of odd primes in the segments, counted in
+     * parallel.
+     */
+    @Override
+    protected Long compute() {
+        if (end - start <= THRESHOLD) {
+            return computeDirectly();
+        }
+        long mid = (start + end) >>> 1;
+        SieveCounter left = new SieveCounter(start, mid, bits, basePrimes);
+        SieveCounter right = new SieveCounter(mid, end, bits, basePrimes);
+        left.fork();
+        long rightCount = right.compute();
+        return left.join() + rightCount;
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * The MIT License (MIT)
+ * ---------------------
+ *
+ * Copyright (c) 2015-2016 Cristatus Solutions
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+ * NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR
+ * THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package cristatus.core.utils;
+
+import cristatus.core.Rational;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+
+/**
+ * This class acts as the access point for the calculation of the sine and
+ * the cosine to high precision. Both are obtained from a single pass, so
+ * {@link #obtainSinCos(Rational, MathContext)} should be preferred when
+ * both are needed.
+ * <p>
+ * The angle x is first reduced modulo &pi;/2, with the cached value of &pi;
+ * from {@link PiGenerator}: x = q &pi;/2 + r, where |r| &le; &pi;/4. The
+ * reduced angle is then halved k times, and 1 - cos(r / 2<sup>k</sup>) is
+ * summed by its series, with every term truncated to the working precision.
+ * The double-angle formula
+ * <pre>
+ *     1 - cos(2a) = 2 (1 - cos(a)) (2 - (1 - cos(a)))
+ * </pre>
+ * recovers 1 - cos(r) with one multiplication per halving and without any
+ * cancellation, and the sine follows from a single square root.
+ * <p>
+ * All the calculations are carried out on binary fixed-point numbers.
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class TrigGenerator {
+
+    // The number of guard bits for the truncations
+    private static final int GUARD_BITS = 32;
+
+    private static final double LN2 = Math.log(2);
+
+    /**
+     * This method returns the sine of the given angle, approximated to the
+     * desired precision.
+     *
+     * @param angle   The angle in radians.
+     * @param context The {@link MathContext} to specify the precision of
+     *                calculation.
+     * @return The sine of the angle with the desired precision.
+     * @throws ArithmeticException If the context is {@code null}.
+     */
+    public static Rational obtainSin(final Rational angle,
+                                     final MathContext context)
+            throws ArithmeticException {
+        return obtainSinCos(angle, context)[0];
+    }
+
+    /**
+     * This method returns the cosine of the given angle, approximated to the
+     * desired precision.
+     *
+     * @param angle   The angle in radians.
+     * @param context The {@link MathContext} to specify the precision of
+     *                calculation.
+     * @return The cosine of the angle with the desired precision.
+     * @throws ArithmeticException If the context is {@code null}.
+     */
+    public static Rational obtainCos(final Rational angle,
+                                     final MathContext context)
+            throws ArithmeticException {
+        return obtainSinCos(angle, context)[1];
+    }
+
+    /**
+     * This method returns both the sine and the cosine of the given angle,
+     * approximated to the desired precision, for the cost of one of them.
+     * The results are binary fractions with at least as many correct bits
+     * as the precision of the context calls for.
+     *
+     * @param angle   The angle in radians.
+     * @param context The {@link MathContext} to specify the precision of
+     *                calculation.
+     * @return The array {sine, cosine} of the angle.
+     * @throws ArithmeticException If the context is {@code null}.
+     */
+    public static Rational[] obtainSinCos(final Rational angle,
+                                          final MathContext context)
+            throws ArithmeticException {
+        return evaluateSinCos(angle, context).getValue();
+    }
+
+    /**
+     * This method returns both the sine and the cosine of the given angle,
+     * approximated to the desired precision, along with the number of terms
+     * summed. The series stops as soon as a term vanishes at the working
+     * precision, which may be well before the number of terms bounded in
+     * advance from the magnitude of the reduced angle.
+     *
+     * @param angle   The angle in radians.
+     * @param context The {@link MathContext} to specify the precision of
+     *                calculation.
+     * @return The array {sine, cosine} of the angle, and the number of terms
+     * summed.
+     * @throws ArithmeticException If the context is {@code null}.
+     * @see #obtainSinCos(Rational, MathContext)
+     */
+    public static SeriesResult<Rational[]> evaluateSinCos(final Rational angle,
+                                                          final MathContext context)
+            throws ArithmeticException {
+        // No nulls please
+        if (context == null) {
+            throw new ArithmeticException("A non-null context is needed.");
+        }
+        if (angle.signum() == 0) {
+            return new SeriesResult<>(
+                    new Rational[]{Rational.ZERO, Rational.ONE}, 0, 0
+            );
+        }
+        int work = BinaryContext.from(context).getBits() + GUARD_BITS;
+        BigInteger num = angle.getNumerator();
+        BigInteger den = angle.getDenominator();
+        // The bits needed for the quotient q
+        int scale = work + Math.max(0, num.bitLength() - den.bitLength() + 1);
+        BigInteger quotient;
+        BigInteger reduced;
+        while (true) {
+            BigInteger x = num.shiftLeft(scale).divide(den);
+            BigInteger halfPi = PiGenerator.obtainFixed(scale - 1);
+            // q = floor((x + pi/4) / (pi/2)), the nearest multiple
+            BigInteger[] division = x.add(halfPi.shiftRight(1))
+                    .divideAndRemainder(halfPi);
+            quotient = division[1].signum() < 0
+                    ? division[0].subtract(BigInteger.ONE)
+                    : division[0];
+            reduced = x.subtract(halfPi.multiply(quotient));
+            // A small r has fewer significant bits; ask for more if needed
+            if (reduced.bitLength() < work) {
+                scale += Math.max(work - reduced.bitLength(), GUARD_BITS);
+                continue;
+            }
+            break;
+        }
+        BigInteger[] sinCos = sinCosReduced(reduced, scale);
+        BigInteger sin = sinCos[0];
+        BigInteger cos = sinCos[1];
+        int wide = sinCos[2].intValue();
+        Rational[] result;
+        switch (quotient.intValue() & 3) {
+            case 1:
+                result = pack(cos, sin.negate(), wide);
+                break;
+            case 2:
+                result = pack(sin.negate(), cos.negate(), wide);
+                break;
+            case 3:
+                result = pack(cos.negate(), sin, wide);
+                break;
+            default:
+                result = pack(sin, cos, wide);
+        }
+        return new SeriesResult<>(result,
+                sinCos[3].longValue(), sinCos[4].longValue());
+    }
+
+    /**
+     * Converts the fixed-point sine and cosine into Rationals.
+     *
+     * @param sin   The sine, as a fixed-point number.
+     * @param cos   The cosine, as a fixed-point number.
+     * @param scale The number of bits after the binary point.
+     * @return The array {sine, cosine}.
+     */
+    private static Rational[] pack(final BigInteger sin,
+                                   final BigInteger cos,
+                                   final int scale) {
+        return new Rational[]{
+                Rational.valueOf(sin).scaleByPowerOfTwo(-scale),
+                Rational.valueOf(cos).scaleByPowerOfTwo(-scale)
+        };
+    }
+
+    /**
+     * Calculates the sine and the cosine of the reduced angle r, where
+     * |r| &le; &pi;/4.
+     *
+     * @param r     The reduced angle, as a fixed-point number.
+     * @param scale The number of bits after the binary point in r.
+     * @return The array {sine, cosine, number of bits after the binary
+     * point in both, number of terms summed, number of terms bounded in
+     * advance}.
+     */
+    private static BigInteger[] sinCosReduced(final BigInteger r,
+                                              final int scale) {
+        if (r.signum() == 0) {
+            return new BigInteger[]{
+                    BigInteger.ZERO,
+                    BigInteger.ONE.shiftLeft(scale),
+                    BigInteger.valueOf(scale),
+                    BigInteger.ZERO,
+                    BigInteger.ZERO
+            };
+        }
+        // Balance the terms of the series (about scale / 2k) with the
+        // k halvings
+        int k = (int) Math.sqrt(scale >>> 1);
+        // 1 - cos(r / 2^k) is about (r / 2^k)^2 / 2; keep its significant bits
+        int lost = Math.max(0, scale - r.bitLength());
+        int wide = scale + ((k + lost) << 1);
+        BigInteger a = r.abs().shiftLeft(wide - scale - k);
+        BigInteger square = a.multiply(a).shiftRight(wide);
+        long bound = bound(a.bitLength() - wide, wide);
+        // v = 1 - cos(a) = a^2/2! - a^4/4! + a^6/6! - ...
+        BigInteger term = square.shiftRight(1);
+        BigInteger v = BigInteger.ZERO;
+        long j = 1;
+        for (; term.signum() != 0; j++) {
+            v = (j & 1) == 1 ? v.add(term) : v.subtract(term);
+            term = term.multiply(square).shiftRight(wide)
+                    .divide(BigInteger.valueOf((2 * j + 1) * (2 * j + 2)));
+        }
+        BigInteger two = BigInteger.ONE.shiftLeft(wide + 1);
+        for (int i = 0; i < k; i++) {
+            // v = 2 v (2 - v)
+            v = v.multiply(two.subtract(v)).shiftRight(wide - 1);
+        }
+        BigInteger cos = BigInteger.ONE.shiftLeft(wide).subtract(v);
+        // sin = sqrt(v (2 - v))
+        BigInteger sin = BigMath.isqrtRem(v.multiply(two.subtract(v)))[0];
+        return new BigInteger[]{
+                r.signum() < 0 ? sin.negate() : sin,
+                cos,
+                BigInteger.valueOf(wide),
+                BigInteger.valueOf(j - 1),
+                BigInteger.valueOf(bound)
+        };
+    }
+
+    /**
+     * Returns the number of terms a<sup>2j</sup> / (2j)! (for j &ge; 1) of
+     * the series for 1 - cos(a) that are not below 2<sup>-bits</sup>, given
+     * that |a| &lt; 2<sup>magnitude</sup>. The terms truncated to that many
+     * bits vanish beyond it.
+     *
+     * @param magnitude The binary exponent that bounds |a| (at most 0).
+     * @param bits      The number of bits after the binary point.
+     * @return The number of terms bounded in advance.
+     */
+    private static long bound(final int magnitude, final int bits) {
+        double factorial = 0;   // log2 (2j)!
+        for (long j = 1; ; j++) {
+            factorial += Math.log((double) (2 * j - 1) * (2 * j)) / LN2;
+            // One bit of slack for the rounding of the logarithms
+            if (2 * j * magnitude - factorial < -bits - 1) {
+                return j - 1;
+            }
+        }
+    }
+}
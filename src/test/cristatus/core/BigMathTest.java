@@ -34,6 +34,8 @@ import java.math.MathContext;
 import java.util.Random;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 import static test.cristatus.core.TestUtils.*;
 
 /**
@@ -44,6 +46,7 @@ public class BigMathTest {
 
     private static final int TRIES = 50;
     private static final int ROOT_BOUND = 100;
+    private static final int ROOT_BITS = 400;
     private static final MathContext CONTEXT = MathContext.DECIMAL128;
     private static final int SQRT_FACTOR = 50;
     private static final int CBRT_FACTOR = 50;
@@ -117,6 +120,67 @@ public class BigMathTest {
         }
     }
 
+    @Test
+    public void testExactRoot() throws Exception {
+        Random random = new Random();
+        for (int i = 0; i < TRIES; i++) {
+            int n = 2 + random.nextInt(ROOT_BOUND - 2);
+            BigInteger root = getOneIfZero(new BigInteger(ROOT_BITS, random));
+            BigInteger integer = root.pow(n);
+            MathContext context = getContextFor(root, n);
+            assertEquals(
+                    BigMath.nthRoot(integer, n, context).toBigInteger(),
+                    root
+            );
+            // Odd roots of negative numbers are negative
+            assertEquals(
+                    BigMath.nthRoot(integer.negate(), n | 1, context).signum(),
+                    -1
+            );
+        }
+    }
+
+    @Test
+    public void testIntegerSquareRoot() throws Exception {
+        Random random = new Random();
+        for (int i = 0; i < TRIES; i++) {
+            // Large enough for the Karatsuba Square Root
+            BigInteger integer = getRandomBigInteger(random)
+                    .multiply(getRandomBigInteger(random));
+            BigInteger[] rootRem = BigMath.isqrtRem(integer);
+            BigInteger root = rootRem[0];
+            BigInteger remainder = rootRem[1];
+            assertEquals(root.pow(2).add(remainder), integer);
+            assertTrue(remainder.signum() >= 0);
+            assertTrue(remainder.compareTo(root.shiftLeft(1)) <= 0);
+            assertEquals(
+                    BigMath.isPerfectPower(integer, 2),
+                    remainder.signum() == 0
+            );
+            assertTrue(BigMath.isPerfectPower(root.pow(2), 2));
+        }
+    }
+
+    @Test
+    public void testIntegerRoot() throws Exception {
+        Random random = new Random();
+        for (int i = 0; i < TRIES; i++) {
+            int n = 2 + random.nextInt(ROOT_BOUND - 2);
+            BigInteger integer = getRandomBigInteger(random);
+            BigInteger[] rootRem = BigMath.iroot(integer, n);
+            BigInteger root = rootRem[0];
+            assertEquals(root.pow(n).add(rootRem[1]), integer);
+            assertTrue(root.add(BigInteger.ONE).pow(n).compareTo(integer) > 0);
+            assertTrue(BigMath.isPerfectPower(root.pow(n), n));
+            // 1 is the only perfect power just after another one
+            if (root.signum() > 0) {
+                assertFalse(BigMath.isPerfectPower(
+                        root.pow(n).add(BigInteger.ONE), n
+                ));
+            }
+        }
+    }
+
     @Test
     public void testHypotenuse() throws Exception {
         Random random = new Random();
@@ -0,0 +1,228 @@
+/*
+ * The MIT License (MIT)
+ * ---------------------
+ *
+ * Copyright (c) 2015-2016 Cristatus Solutions
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+ * NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR
+ * THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package test.cristatus.core;
+
+import cristatus.core.utils.Checkpoint;
+import cristatus.core.utils.Factorial;
+import cristatus.core.utils.HypergeometricSeries;
+import cristatus.core.utils.PiGenerator;
+import org.testng.annotations.Test;
+
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.fail;
+
+/**
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class CheckpointTest {
+
+    private static final MathContext CONTEXT = new MathContext(100_000);
+    // Enough terms for three levels of saved ranges
+    private static final int BITS = 20_000;
+    // Large enough for the swinging factorial to be saved in halves
+    private static final int FACTORIAL_ARGUMENT = 1 << 19;
+
+    // 1 + 1/2 + 1/4 + ... = 2, and its negation
+    private static final HypergeometricSeries HALVES = new HypergeometricSeries(
+            HypergeometricSeries.polynomial(1),
+            HypergeometricSeries.polynomial(1),
+            HypergeometricSeries.polynomial(2)
+    );
+    private static final HypergeometricSeries NEGATIVE_HALVES
+            = new HypergeometricSeries(
+            HypergeometricSeries.polynomial(-1),
+            HypergeometricSeries.polynomial(1),
+            HypergeometricSeries.polynomial(2)
+    );
+
+    @Test
+    public void testSubtrees() throws Exception {
+        // The terms [1, half) form the left half of the terms [1, total)
+        long total = HALVES.terms(BITS + 2);
+        long half = (1 + total) >>> 1;
+        int low = 0;
+        int high = BITS;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (HALVES.terms(mid + 2) < half) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int halfBits = low;
+        assertEquals(HALVES.terms(halfBits + 2), half);
+        assertEquals(NEGATIVE_HALVES.terms(halfBits + 2), half);
+
+        BigInteger expected = HALVES.sumFixed(BITS);
+        Path directory = Files.createTempDirectory("checkpoint");
+        Checkpoint checkpoint = new Checkpoint(directory);
+
+        // An interrupted run, which completed only the left half
+        HALVES.sumFixed(halfBits, checkpoint);
+        List<Path> files = list(directory);
+        assertEquals(files.size(), 1);
+        Path leftHalf = files.get(0);
+        // The run is resumed, and the result for all the terms replaces
+        // the ones for the halves
+        assertEquals(HALVES.sumFixed(BITS, checkpoint), expected);
+        files = list(directory);
+        assertEquals(files.size(), 1);
+        assertFalse(files.contains(leftHalf));
+
+        // The saved left half is loaded, not calculated again: put the one
+        // of the negated series in its place, and it shows in the result
+        checkpoint.clear();
+        HALVES.sumFixed(halfBits, checkpoint);
+        Path otherDirectory = Files.createTempDirectory("checkpoint");
+        Checkpoint other = new Checkpoint(otherDirectory);
+        NEGATIVE_HALVES.sumFixed(halfBits, other);
+        Files.move(list(otherDirectory).get(0), leftHalf,
+                StandardCopyOption.REPLACE_EXISTING);
+        assertNotEquals(HALVES.sumFixed(BITS, checkpoint), expected);
+
+        checkpoint.clear();
+        Files.delete(directory);
+        Files.delete(otherDirectory);
+    }
+
+    @Test
+    public void testInterruptedFactorial() throws Exception {
+        int n = FACTORIAL_ARGUMENT;
+        BigInteger argument = BigInteger.valueOf(n);
+        BigInteger expected = Factorial.of(argument);
+        Path directory = Files.createTempDirectory("checkpoint");
+        Checkpoint checkpoint = new Checkpoint(directory);
+        String result = "factorial-odd-" + n + ".chk";
+        String swing = "factorial-swing-" + n + "-";
+
+        // Stopped just before the result is saved: the previous level of
+        // the recursion and the whole swinging factorial remain
+        interrupt(argument, checkpoint, directory.resolve(result));
+        List<Path> files = list(directory);
+        assertEquals(files.size(), 2);
+        Path whole = find(files, swing);
+
+        // Stopped just before the whole swinging factorial is saved: its
+        // halves remain instead
+        checkpoint.clear();
+        interrupt(argument, checkpoint, whole);
+        files = list(directory);
+        assertEquals(files.size(), 3);
+        Path otherDirectory = Files.createTempDirectory("checkpoint");
+        Checkpoint other = new Checkpoint(otherDirectory);
+        for (Path file : files) {
+            Files.copy(file, otherDirectory.resolve(file.getFileName()));
+        }
+
+        // The run is resumed, and only the result is left in the end
+        assertEquals(Factorial.of(argument, checkpoint), expected);
+        files = list(directory);
+        assertEquals(files.size(), 1);
+        assertEquals(files.get(0).getFileName().toString(), result);
+
+        // The saved halves are loaded, not calculated again: put another
+        // value in place of the first one, and it shows in the result
+        Files.copy(find(list(otherDirectory), "factorial-odd-"),
+                find(list(otherDirectory), swing + "0-"),
+                StandardCopyOption.REPLACE_EXISTING);
+        assertNotEquals(Factorial.of(argument, other), expected);
+
+        checkpoint.clear();
+        other.clear();
+        Files.delete(directory);
+        Files.delete(otherDirectory);
+    }
+
+    @Test
+    public void testDamagedFile() throws Exception {
+        Path directory = Files.createTempDirectory("checkpoint");
+        Checkpoint checkpoint = new Checkpoint(directory);
+        BigDecimal expected = PiGenerator.obtainDecimal(CONTEXT);
+        assertEquals(PiGenerator.obtainDecimal(CONTEXT, checkpoint), expected);
+        List<Path> files = list(directory);
+        assertFalse(files.isEmpty());
+
+        // Loaded from the saved results
+        assertEquals(PiGenerator.obtainDecimal(CONTEXT, checkpoint), expected);
+
+        // A damaged file is detected and calculated again
+        Path file = files.get(0);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length >> 1] ^= 1;
+        Files.write(file, bytes);
+        assertEquals(PiGenerator.obtainDecimal(CONTEXT, checkpoint), expected);
+
+        checkpoint.clear();
+        assertEquals(list(directory).size(), 0);
+        Files.delete(directory);
+    }
+
+    private static List<Path> list(Path directory) throws Exception {
+        try (Stream<Path> stream = Files.list(directory)) {
+            return stream
+                    .filter(file -> file.toString().endsWith(".chk"))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static Path find(List<Path> files, String prefix) {
+        return files.stream()
+                .filter(file -> file.getFileName().toString().startsWith(prefix))
+                .findFirst()
+                .orElseThrow(AssertionError::new);
+    }
+
+    private static void interrupt(BigInteger argument, Checkpoint checkpoint,
+                                  Path file) throws Exception {
+        // A directory in the way of the temporary file makes saving fail
+        String name = file.getFileName().toString();
+        Path blocker = file.resolveSibling(name.replace(".chk", ".tmp"));
+        Files.createDirectory(blocker);
+        try {
+            Factorial.of(argument, checkpoint);
+            fail("Saved to " + file);
+        } catch (UncheckedIOException e) {
+            // The calculation stopped there
+        } finally {
+            Files.delete(blocker);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * The MIT License (MIT)
+ * ---------------------
+ *
+ * Copyright (c) 2015-2016 Cristatus Solutions
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+ * NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR
+ * THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package test.cristatus.core;
+
+import cristatus.core.utils.Combinatorics;
+import cristatus.core.utils.Factorial;
+import org.testng.annotations.Test;
+
+import java.math.BigInteger;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class CombinatoricsTest {
+
+    private static final int LIMIT = 200;
+
+    private static BigInteger factorial(int n) {
+        return Factorial.of(BigInteger.valueOf(n));
+    }
+
+    // x (x - 1) ... (x - k + 1), one factor at a time
+    private static BigInteger falling(long x, int k) {
+        BigInteger product = BigInteger.ONE;
+        for (int i = 0; i < k; i++) {
+            product = product.multiply(BigInteger.valueOf(x - i));
+        }
+        return product;
+    }
+
+    @Test
+    public void testBinomial() throws Exception {
+        for (int n = 0; n <= LIMIT; n++) {
+            assertEquals(Combinatorics.binomial(n, -1), BigInteger.ZERO);
+            assertEquals(Combinatorics.binomial(n, n + 1), BigInteger.ZERO);
+            for (int k = 0; k <= n; k++) {
+                BigInteger expected = factorial(n)
+                        .divide(factorial(k).multiply(factorial(n - k)));
+                assertEquals(Combinatorics.binomial(n, k), expected);
+            }
+        }
+        // Large enough for the prime factorisation
+        int n = 10_000;
+        int k = 3_000;
+        BigInteger expected = factorial(n)
+                .divide(factorial(k).multiply(factorial(n - k)));
+        assertEquals(Combinatorics.binomial(n, k), expected);
+    }
+
+    @Test
+    public void testMultinomial() throws Exception {
+        int[][] cases = {{}, {0}, {5}, {2, 3}, {1, 1, 1, 1}, {40, 30, 20, 10},
+                {1_000, 1, 2}, {0, 17, 250, 3}};
+        for (int[] sizes : cases) {
+            int n = 0;
+            BigInteger denominator = BigInteger.ONE;
+            for (int size : sizes) {
+                n += size;
+                denominator = denominator.multiply(factorial(size));
+            }
+            assertEquals(Combinatorics.multinomial(sizes),
+                    factorial(n).divide(denominator));
+        }
+    }
+
+    @Test
+    public void testFallingAndRising() throws Exception {
+        for (int x = -LIMIT / 4; x <= LIMIT; x++) {
+            for (int k = 0; k <= LIMIT / 4; k++) {
+                assertEquals(Combinatorics.fallingFactorial(x, k), falling(x, k));
+                assertEquals(Combinatorics.risingFactorial(x, k),
+                        falling((long) x + k - 1, k));
+            }
+        }
+    }
+
+    @Test
+    public void testDoubleFactorial() throws Exception {
+        for (int n = -1; n <= LIMIT; n++) {
+            BigInteger expected = BigInteger.ONE;
+            for (int i = n; i > 1; i -= 2) {
+                expected = expected.multiply(BigInteger.valueOf(i));
+            }
+            assertEquals(Combinatorics.doubleFactorial(n), expected);
+        }
+    }
+}
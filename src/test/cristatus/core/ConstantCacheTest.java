@@ -0,0 +1,186 @@
+/*
+ * The MIT License (MIT)
+ * ---------------------
+ *
+ * Copyright (c) 2015-2016 Cristatus Solutions
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+ * NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR
+ * THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package test.cristatus.core;
+
+import cristatus.core.utils.ConstantCache;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class ConstantCacheTest {
+
+    private static final int THREADS = 8;
+    private static final MathContext HIGH = new MathContext(2_000);
+    private static final MathContext LOW
+            = new MathContext(1_000, RoundingMode.DOWN);
+
+    @AfterMethod
+    public void restoreLimit() throws Exception {
+        ConstantCache.setMemoryLimit(ConstantCache.DEFAULT_MEMORY_LIMIT);
+    }
+
+    // sqrt(2) by Newton's method, counting the generations
+    private static BigDecimal sqrt2(MathContext context, AtomicInteger count) {
+        count.incrementAndGet();
+        BigDecimal two = BigDecimal.valueOf(2);
+        BigDecimal x = BigDecimal.valueOf(Math.sqrt(2));
+        for (int i = 0; i < 20; i++) {
+            x = x.add(two.divide(x, context)).divide(two, context);
+        }
+        return x;
+    }
+
+    @Test
+    public void testMonotonicity() throws Exception {
+        AtomicInteger count = new AtomicInteger();
+        ConstantCache cache = new ConstantCache(c -> sqrt2(c, count));
+        BigDecimal high = cache.getDecimal(HIGH);
+        // Lower precisions and other rounding modes are served from it
+        BigDecimal low = cache.getDecimal(LOW);
+        assertEquals(count.get(), 1);
+        assertEquals(low, high.round(LOW));
+        assertEquals(low, sqrt2(LOW, new AtomicInteger()).round(LOW));
+        assertEquals(cache.getCachedPrecision(), HIGH.getPrecision());
+    }
+
+    @Test
+    public void testSharedGeneration() throws Exception {
+        AtomicInteger count = new AtomicInteger();
+        ConstantCache cache = new ConstantCache(c -> sqrt2(c, count));
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch latch = new CountDownLatch(1);
+        try {
+            List<Future<BigDecimal>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    latch.await();
+                    return cache.getDecimal(HIGH);
+                }));
+            }
+            latch.countDown();
+            BigDecimal first = futures.get(0).get();
+            for (Future<BigDecimal> future : futures) {
+                assertEquals(future.get(), first);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(count.get(), 1);
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        AtomicInteger count = new AtomicInteger();
+        ConstantCache cache = new ConstantCache(c -> sqrt2(c, count));
+        cache.getDecimal(HIGH);
+        ConstantCache.setMemoryLimit(0);
+        assertEquals(cache.getCachedPrecision(), 0);
+        assertEquals(ConstantCache.getMemoryUsed(), 0);
+        cache.getDecimal(HIGH);
+        assertEquals(count.get(), 2);
+    }
+
+    @Test
+    public void testRoundingBoundary() throws Exception {
+        // The digits after 0.12345 are 4999...9 up to the 50th place
+        BigDecimal value = new BigDecimal("0.1234549999999999999999999999"
+                + "999999999999999999999999");
+        ConstantCache cache = new ConstantCache(value::round);
+        MathContext ceiling = new MathContext(5, RoundingMode.CEILING);
+        MathContext halfUp = new MathContext(5, RoundingMode.HALF_UP);
+        MathContext down = new MathContext(6, RoundingMode.DOWN);
+        assertEquals(cache.getDecimal(ceiling), value.round(ceiling));
+        assertEquals(cache.getDecimal(halfUp), value.round(halfUp));
+        assertEquals(cache.getDecimal(down), value.round(down));
+    }
+
+    @Test
+    public void testSharedFailure() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ConstantCache cache = new ConstantCache(c -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new ArithmeticException("Failed.");
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Class<?>> first = executor.submit(() -> failure(cache));
+            started.await();
+            Future<Class<?>> waiter = executor.submit(() -> failure(cache));
+            // Give the waiter time to join the generation in progress
+            Thread.sleep(100);
+            release.countDown();
+            assertEquals(first.get(), ArithmeticException.class);
+            assertEquals(waiter.get(), ArithmeticException.class);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // Returns the class of the exception thrown while getting the value
+    private static Class<?> failure(ConstantCache cache) {
+        try {
+            cache.getDecimal(HIGH);
+            return null;
+        } catch (RuntimeException e) {
+            return e.getClass();
+        }
+    }
+
+    @Test
+    public void testOversizedValue() throws Exception {
+        AtomicInteger count = new AtomicInteger();
+        ConstantCache small = new ConstantCache(c -> sqrt2(c, count));
+        small.getDecimal(LOW);
+        // A value larger than the limit leaves the other values alone
+        ConstantCache.setMemoryLimit(ConstantCache.getMemoryUsed() + 100);
+        ConstantCache large = new ConstantCache(c -> sqrt2(c, new AtomicInteger()));
+        large.getDecimal(HIGH);
+        assertEquals(large.getCachedPrecision(), 0);
+        assertEquals(small.getCachedPrecision(), LOW.getPrecision());
+    }
+}
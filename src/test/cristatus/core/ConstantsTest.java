@@ -0,0 +1,110 @@
+/*
+ * The MIT License (MIT)
+ * ---------------------
+ *
+ * Copyright (c) 2015-2016 Cristatus Solutions
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+ * NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR
+ * THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package test.cristatus.core;
+
+import cristatus.core.Rational;
+import cristatus.core.series.Exp;
+import cristatus.core.utils.Constants;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class ConstantsTest {
+
+    private static final MathContext CONTEXT = new MathContext(100);
+    private static final MathContext LARGE_CONTEXT = new MathContext(2_000);
+    private static final MathContext SQUARE_CONTEXT = new MathContext(1_998);
+
+    // The first 110 significant digits of each constant
+    private static final BigDecimal E = new BigDecimal(
+            "2.7182818284590452353602874713526624977572470936999595749669"
+            + "676277240766303535475945713821785251664274274663919"
+    );
+    private static final BigDecimal LN2 = new BigDecimal(
+            "0.6931471805599453094172321214581765680755001343602552541206"
+            + "8000949339362196969471560586332699641868754200148102"
+    );
+    private static final BigDecimal LN10 = new BigDecimal(
+            "2.3025850929940456840179914546843642076011014886287729760333"
+            + "279009675726096773524802359972050895982983419677840"
+    );
+    private static final BigDecimal SQRT2 = new BigDecimal(
+            "1.4142135623730950488016887242096980785696718753769480731766"
+            + "797379907324784621070388503875343276415727350138462"
+    );
+    private static final BigDecimal EULER_GAMMA = new BigDecimal(
+            "0.5772156649015328606065120900824024310421593359399235988057"
+            + "6723488486772677766467093694706329174674951463144724"
+    );
+    private static final BigDecimal CATALAN = new BigDecimal(
+            "0.9159655941772190150546035149323841107741493742816721342664"
+            + "9811962176301977625476947935651292611510624857442261"
+    );
+    private static final BigDecimal ZETA3 = new BigDecimal(
+            "1.2020569031595942853997381615114499907649862923404988817922"
+            + "715553418382057863130901864558736093352581461991577"
+    );
+
+    @Test
+    public void testValues() throws Exception {
+        assertEquals(Constants.obtainE(CONTEXT), E.round(CONTEXT));
+        assertEquals(Constants.obtainLn2(CONTEXT), LN2.round(CONTEXT));
+        assertEquals(Constants.obtainLn10(CONTEXT), LN10.round(CONTEXT));
+        assertEquals(Constants.obtainSqrt2(CONTEXT), SQRT2.round(CONTEXT));
+        assertEquals(Constants.obtainEulerGamma(CONTEXT), EULER_GAMMA.round(CONTEXT));
+        assertEquals(Constants.obtainCatalan(CONTEXT), CATALAN.round(CONTEXT));
+        assertEquals(Constants.obtainZeta3(CONTEXT), ZETA3.round(CONTEXT));
+    }
+
+    @Test
+    public void testConsistency() throws Exception {
+        assertEquals(
+                Constants.obtainE(LARGE_CONTEXT),
+                Exp.expSeries(Rational.ONE, LARGE_CONTEXT).toBigDecimal(LARGE_CONTEXT)
+        );
+        assertEquals(
+                Constants.obtainLn2(LARGE_CONTEXT),
+                Exp.logSeries(Rational.TWO, LARGE_CONTEXT).toBigDecimal(LARGE_CONTEXT)
+        );
+        assertEquals(
+                Constants.obtainLn10(LARGE_CONTEXT),
+                Exp.logSeries(Rational.TEN, LARGE_CONTEXT).toBigDecimal(LARGE_CONTEXT)
+        );
+        // The error of the square is less than 2 units in the last place
+        BigDecimal root = Constants.obtainSqrt2(LARGE_CONTEXT);
+        assertEquals(
+                root.multiply(root).round(SQUARE_CONTEXT).stripTrailingZeros(),
+                BigDecimal.valueOf(2)
+        );
+    }
+}
@@ -27,6 +27,8 @@ package test.cristatus.core;
 
 import cristatus.core.Rational;
 import cristatus.core.series.Exp;
+import cristatus.core.utils.ExpGenerator;
+import cristatus.core.utils.SeriesResult;
 import org.testng.annotations.Test;
 
 import java.math.BigDecimal;
@@ -34,6 +36,8 @@ import java.math.MathContext;
 import java.util.Random;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static test.cristatus.core.TestUtils.getOneIfZero;
 
 /**
  * @author Subhomoy Haldar
@@ -42,6 +46,8 @@ import static org.testng.Assert.assertEquals;
 public class ExpTest {
     private static final int TRIES = 2;
     private static final MathContext CONTEXT = MathContext.DECIMAL128;
+    private static final MathContext LARGE_CONTEXT = new MathContext(1000);
+    private static final int ARGUMENT_BOUND = 1000;
 
     @Test
     public void testSeries() throws Exception {
@@ -68,4 +74,73 @@ public class ExpTest {
         }
     }
 
+    @Test
+    public void testTermCounts() throws Exception {
+        // Binary splitting sums exactly the terms bounded in advance
+        Rational third = Rational.valueOf(1, 3);
+        SeriesResult<Rational> exp = ExpGenerator.evaluate(third, CONTEXT);
+        assertTrue(exp.getTerms() > 0);
+        assertEquals(exp.getTerms(), exp.getBound());
+        assertEquals(exp.getValue(), Exp.expSeries(third, CONTEXT));
+
+        // The means agree before the iterations bounded from their ratio
+        SeriesResult<Rational> agm = Exp.evaluateLog(Rational.TWO, LARGE_CONTEXT);
+        assertTrue(agm.getTerms() > 0);
+        assertTrue(agm.getTerms() < agm.getBound());
+
+        Random random = new Random();
+        for (int i = 0; i < TRIES; i++) {
+            Rational x = Rational.valueOf(random.nextDouble() * 100);
+            SeriesResult<Rational> log = Exp.evaluateLog(x, CONTEXT);
+            assertTrue(log.getTerms() <= log.getBound());
+            assertEquals(log.getValue(), Exp.logSeries(x, CONTEXT));
+        }
+    }
+
+    @Test
+    public void testLargeArgument() throws Exception {
+        Random random = new Random();
+        for (int i = 0; i < TRIES; i++) {
+            Rational x = Rational.valueOf(
+                    random.nextInt(ARGUMENT_BOUND) * (random.nextBoolean() ? -1 : 1),
+                    getOneIfZero(random.nextInt(ARGUMENT_BOUND))
+            );
+            Rational product = Exp.expSeries(x, CONTEXT)
+                    .multiply(Exp.expSeries(x.negate(), CONTEXT));
+            assertEquals(product.toBigDecimal(CONTEXT), BigDecimal.ONE);
+            // e^(x + 1) = e^x * e
+            Rational sum = Exp.expSeries(x.add(Rational.ONE), CONTEXT);
+            Rational split = Exp.expSeries(x, CONTEXT)
+                    .multiply(Exp.expSeries(Rational.ONE, CONTEXT));
+            assertEquals(
+                    sum.toBigDecimal(CONTEXT),
+                    split.toBigDecimal(CONTEXT)
+            );
+        }
+    }
+
+    @Test
+    public void testLogarithm() throws Exception {
+        Random random = new Random();
+        // Both the series and the AGM
+        MathContext[] contexts = {MathContext.DECIMAL64, CONTEXT, LARGE_CONTEXT};
+        for (MathContext context : contexts) {
+            for (int i = 0; i < TRIES; i++) {
+                Rational x = Rational.valueOf(
+                        getOneIfZero(random.nextInt(ARGUMENT_BOUND)),
+                        getOneIfZero(random.nextInt(ARGUMENT_BOUND))
+                );
+                Rational y = Rational.valueOf(random.nextDouble()).abs();
+                y = y.signum() == 0 ? Rational.HALF : y;
+                Rational product = Exp.logSeries(x.multiply(y), context);
+                Rational sum = Exp.logSeries(x, context)
+                        .add(Exp.logSeries(y, context));
+                assertEquals(
+                        product.toBigDecimal(context),
+                        sum.toBigDecimal(context)
+                );
+            }
+        }
+    }
+
 }
\ No newline at end of file
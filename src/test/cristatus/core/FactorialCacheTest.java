@@ -0,0 +1,70 @@
+/*
+ * The MIT License (MIT)
+ * ---------------------
+ *
+ * Copyright (c) 2015-2016 Cristatus Solutions
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+ * NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR
+ * THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package test.cristatus.core;
+
+import cristatus.core.utils.Factorial;
+import cristatus.core.utils.FactorialCache;
+import org.testng.annotations.Test;
+
+import java.math.BigInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class FactorialCacheTest {
+
+    private static final int SPACING = 1_000;
+
+    @Test
+    public void testValues() throws Exception {
+        FactorialCache cache = new FactorialCache(
+                FactorialCache.DEFAULT_MEMORY_LIMIT, SPACING
+        );
+        int[] arguments = {0, 1, 999, 1_000, 1_001, 2_500, 2_501, 12_345, 12_346};
+        for (int n : arguments) {
+            assertEquals(cache.of(n), Factorial.of(BigInteger.valueOf(n)));
+        }
+        // 1000!, 2000! and 12000! are calculated, and then reused once each
+        assertEquals(cache.getMissCount(), 3);
+        assertEquals(cache.getHitCount(), 3);
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        long limit = 20_000;
+        FactorialCache cache = new FactorialCache(limit, SPACING);
+        for (int n = SPACING; n <= 20 * SPACING; n += SPACING) {
+            assertEquals(cache.of(n), Factorial.of(BigInteger.valueOf(n)));
+            assertTrue(cache.getMemoryUsed() <= limit);
+        }
+        cache.clear();
+        assertEquals(cache.getMemoryUsed(), 0);
+    }
+}
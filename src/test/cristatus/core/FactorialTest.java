@@ -51,4 +51,18 @@ public class FactorialTest {
         );
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testLargeFactorial() throws Exception {
+        // Large enough to go through the prime-swing algorithm
+        int n = 12_345;
+        BigInteger expected = BigInteger.ONE;
+        for (int i = 2; i <= n; i++) {
+            expected = expected.multiply(BigInteger.valueOf(i));
+        }
+        assertEquals(Factorial.of(BigInteger.valueOf(n)), expected);
+        assertEquals(
+                Factorial.of(BigInteger.valueOf(n + 1)),
+                expected.multiply(BigInteger.valueOf(n + 1))
+        );
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * The MIT License (MIT)
+ * ---------------------
+ *
+ * Copyright (c) 2015-2016 Cristatus Solutions
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+ * NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR
+ * THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package test.cristatus.core;
+
+import cristatus.core.Rational;
+import cristatus.core.series.Exp;
+import cristatus.core.utils.HypergeometricSeries;
+import cristatus.core.utils.PiGenerator;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+
+import static cristatus.core.utils.HypergeometricSeries.polynomial;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class HypergeometricSeriesTest {
+
+    private static final MathContext CONTEXT = new MathContext(1_000);
+    private static final int BINOMIAL_POWER = 100;
+    private static final int TERM_BITS = 2_000;
+
+    @Test
+    public void testExponential() throws Exception {
+        // e = sum of 1 / k!
+        HypergeometricSeries series = new HypergeometricSeries(
+                polynomial(1), polynomial(1), polynomial(0, 1)
+        );
+        assertEquals(
+                series.sum(CONTEXT).toBigDecimal(CONTEXT),
+                Exp.expSeries(Rational.ONE, CONTEXT).toBigDecimal(CONTEXT)
+        );
+    }
+
+    @Test
+    public void testPi() throws Exception {
+        // pi / 2 = sum of k! / (2k + 1)!!
+        HypergeometricSeries series = new HypergeometricSeries(
+                polynomial(2), polynomial(0, 1), polynomial(1, 2)
+        );
+        assertEquals(
+                series.sum(CONTEXT).toBigDecimal(CONTEXT),
+                PiGenerator.obtainDecimal(CONTEXT)
+        );
+    }
+
+    @Test
+    public void testTerminating() throws Exception {
+        // 2^n = sum of C(n, k), where C(n, k) / C(n, k - 1) = (n - k + 1) / k
+        HypergeometricSeries series = new HypergeometricSeries(
+                polynomial(1), polynomial(BINOMIAL_POWER + 1, -1), polynomial(0, 1)
+        );
+        assertEquals(series.terms(Integer.MAX_VALUE), BINOMIAL_POWER + 1);
+        assertEquals(
+                series.sum(CONTEXT).toBigDecimal(CONTEXT),
+                new BigDecimal(BigInteger.ONE.shiftLeft(BINOMIAL_POWER))
+        );
+    }
+
+    @Test
+    public void testTermCount() throws Exception {
+        // The term n of the series for e is 1 / n!
+        HypergeometricSeries series = new HypergeometricSeries(
+                polynomial(1), polynomial(1), polynomial(0, 1)
+        );
+        for (int bits = 1; bits < TERM_BITS; bits++) {
+            long terms = series.terms(bits);
+            // The rest is below 2^-bits, but not much further below it
+            assertTrue(factorial(terms).bitLength() > bits);
+            assertTrue(factorial(terms - 2).bitLength() <= bits);
+        }
+    }
+
+    private static BigInteger factorial(long n) {
+        BigInteger product = BigInteger.ONE;
+        for (long i = 2; i <= n; i++) {
+            product = product.multiply(BigInteger.valueOf(i));
+        }
+        return product;
+    }
+
+    @Test
+    public void testDivergence() throws Exception {
+        // The sum of 2^k does not converge
+        boolean thrown = false;
+        try {
+            new HypergeometricSeries(polynomial(1), polynomial(2), polynomial(1));
+        } catch (ArithmeticException e) {
+            thrown = true;
+        }
+        assertEquals(thrown, true);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * The MIT License (MIT)
+ * ---------------------
+ *
+ * Copyright (c) 2015-2016 Cristatus Solutions
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+ * NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR
+ * THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package test.cristatus.core;
+
+import cristatus.core.utils.Factorial;
+import cristatus.core.utils.MathExecutor;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.math.BigInteger;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class MathExecutorTest {
+
+    private static final BigInteger ARGUMENT = BigInteger.valueOf(20_000);
+
+    @AfterMethod
+    public void restoreDefault() throws Exception {
+        MathExecutor.reset();
+    }
+
+    @Test
+    public void testDefaultIsCommonPool() throws Exception {
+        assertSame(MathExecutor.getPool(), ForkJoinPool.commonPool());
+    }
+
+    @Test
+    public void testBoundedParallelism() throws Exception {
+        BigInteger expected = Factorial.of(ARGUMENT);
+        MathExecutor.setParallelism(2);
+        ForkJoinPool dedicated = MathExecutor.getPool();
+        assertEquals(dedicated.getParallelism(), 2);
+        assertEquals(Factorial.of(ARGUMENT), expected);
+        // A dedicated pool is shut down once it is replaced
+        MathExecutor.reset();
+        assertTrue(dedicated.isShutdown());
+    }
+
+    @Test
+    public void testConcurrentReplacement() throws Exception {
+        BigInteger expected = Factorial.of(ARGUMENT);
+        AtomicBoolean done = new AtomicBoolean();
+        // Replaced pools must not be shut down under running computations
+        Thread replacer = new Thread(() -> {
+            for (int i = 0; !done.get(); i++) {
+                MathExecutor.setParallelism(1 + (i & 1));
+                Thread.yield();
+            }
+        });
+        replacer.start();
+        try {
+            for (int i = 0; i < 100; i++) {
+                assertEquals(Factorial.of(ARGUMENT), expected);
+            }
+        } finally {
+            done.set(true);
+            replacer.join();
+        }
+    }
+
+    @Test
+    public void testInjectedPool() throws Exception {
+        BigInteger expected = Factorial.of(ARGUMENT);
+        ForkJoinPool custom = new ForkJoinPool(1);
+        try {
+            MathExecutor.setPool(custom);
+            assertEquals(Factorial.of(ARGUMENT), expected);
+            // The work was taken up by the injected pool's worker
+            assertTrue(custom.getStealCount() > 0);
+            MathExecutor.reset();
+            // The caller owns an injected pool
+            assertFalse(custom.isShutdown());
+        } finally {
+            custom.shutdown();
+        }
+    }
+}
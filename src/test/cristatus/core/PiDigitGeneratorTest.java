@@ -0,0 +1,88 @@
+/*
+ * The MIT License (MIT)
+ * ---------------------
+ *
+ * Copyright (c) 2015-2016 Cristatus Solutions
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+ * NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR
+ * THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package test.cristatus.core;
+
+import cristatus.core.utils.PiDigitGenerator;
+import cristatus.core.utils.PiGenerator;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.Random;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class PiDigitGeneratorTest {
+
+    private static final String FIRST_HEX_DIGITS
+            = "243F6A8885A308D313198A2E03707344A4093822299F31D008";
+    private static final int TRIES = 50;
+    private static final int MAX_POSITION = 10_000;
+    private static final int MAX_COUNT = 30;
+    // More than enough decimal digits for MAX_POSITION + MAX_COUNT hex digits
+    private static final MathContext CONTEXT = new MathContext(12_200);
+
+    @Test
+    public void testFirstDigits() throws Exception {
+        assertEquals(
+                PiDigitGenerator.obtainHexDigits(1, FIRST_HEX_DIGITS.length()),
+                FIRST_HEX_DIGITS
+        );
+    }
+
+    @Test
+    public void testCrossCheck() throws Exception {
+        BigDecimal pi = PiGenerator.obtainDecimal(CONTEXT);
+        Random random = new Random();
+        for (int i = 0; i < TRIES; i++) {
+            int position = random.nextInt(MAX_POSITION) + 1;
+            int count = random.nextInt(MAX_COUNT) + 1;
+            assertEquals(
+                    PiDigitGenerator.obtainHexDigits(position, count),
+                    hexDigits(pi, position, count)
+            );
+        }
+    }
+
+    private static String hexDigits(BigDecimal value, int position, int count) {
+        BigInteger sixteen = BigInteger.valueOf(16);
+        BigInteger scaled = value
+                .multiply(new BigDecimal(sixteen.pow(position - 1 + count)))
+                .toBigInteger()
+                .mod(sixteen.pow(count));
+        StringBuilder builder = new StringBuilder(count);
+        String hex = scaled.toString(16).toUpperCase();
+        for (int i = hex.length(); i < count; i++) {
+            builder.append('0');
+        }
+        return builder.append(hex).toString();
+    }
+}
@@ -32,6 +32,7 @@ import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.MathContext;
+import java.util.PrimitiveIterator;
 
 import static org.testng.Assert.assertEquals;
 
@@ -42,6 +43,8 @@ import static org.testng.Assert.assertEquals;
 public class PiGeneratorTest {
 
     private static final MathContext CONTEXT = new MathContext(10_000);
+    private static final MathContext LARGE_CONTEXT = new MathContext(100_000);
+    private static final MathContext RAMANUJAN_CONTEXT = new MathContext(2_000);
 
     @Test
     public void testApproximation() throws Exception {
@@ -54,6 +57,61 @@ public class PiGeneratorTest {
         assertEquals(actualPi, expectedPi);
     }
 
+    @Test
+    public void testLargeApproximation() throws Exception {
+        int digits = LARGE_CONTEXT.getPrecision() + 1;
+        BigDecimal actualPi = new BigDecimal(readPiUpto(digits))
+                .round(LARGE_CONTEXT).stripTrailingZeros();
+        BigDecimal expectedPi = PiGenerator.obtainRational(LARGE_CONTEXT)
+                .toBigDecimal(LARGE_CONTEXT);
+        assertEquals(actualPi, expectedPi);
+    }
+
+    @Test
+    public void testRamanujanCrossCheck() throws Exception {
+        BigDecimal chudnovsky = PiGenerator.obtainRational(RAMANUJAN_CONTEXT)
+                .toBigDecimal(RAMANUJAN_CONTEXT);
+        BigDecimal ramanujan = PiGenerator.obtainRamanujan(RAMANUJAN_CONTEXT)
+                .toBigDecimal(RAMANUJAN_CONTEXT);
+        assertEquals(chudnovsky, ramanujan);
+    }
+
+    @Test
+    public void testMachinCrossCheck() throws Exception {
+        BigDecimal chudnovsky = PiGenerator.obtainRational(RAMANUJAN_CONTEXT)
+                .toBigDecimal(RAMANUJAN_CONTEXT);
+        BigDecimal machin = PiGenerator.obtainMachin(RAMANUJAN_CONTEXT)
+                .toBigDecimal(RAMANUJAN_CONTEXT);
+        assertEquals(chudnovsky, machin);
+    }
+
+    @Test
+    public void testDigits() throws Exception {
+        int digits = CONTEXT.getPrecision();
+        String expected = readPiUpto(digits).replace(".", "");
+        StringBuilder builder = new StringBuilder(digits);
+        PiGenerator.digits().limit(digits).forEach(builder::append);
+        assertEquals(builder.toString(), expected);
+        PrimitiveIterator.OfInt iterator = PiGenerator.digitIterator();
+        for (int i = 0; i < digits; i++) {
+            assertEquals(iterator.nextInt(), expected.charAt(i) - '0');
+        }
+    }
+
+    @Test
+    public void testDigitsAtCarry() throws Exception {
+        // Rounded to 768 digits, the six 9s from the 762nd decimal place on
+        // carry into the digit before them
+        int digits = 1_600;
+        String expected = readPiUpto(digits).replace(".", "");
+        for (int precision = 760; precision <= 770; precision++) {
+            PrimitiveIterator.OfInt iterator = PiGenerator.digitIterator(precision);
+            for (int i = 0; i < digits; i++) {
+                assertEquals(iterator.nextInt(), expected.charAt(i) - '0');
+            }
+        }
+    }
+
     private static String readPiUpto(int digits) {
         try (BufferedInputStream stream = new BufferedInputStream(
                 PiGeneratorTest.class.getResourceAsStream("pi1000000.txt")
@@ -0,0 +1,98 @@
+/*
+ * The MIT License (MIT)
+ * ---------------------
+ *
+ * Copyright (c) 2015-2016 Cristatus Solutions
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+ * NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR
+ * THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package test.cristatus.core;
+
+import cristatus.core.utils.PrimeSieve;
+import org.testng.annotations.Test;
+
+import java.math.BigInteger;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class PrimeSieveTest {
+
+    private static final int LIMIT = 2_000_000;
+    private static final int TRIES = 50;
+
+    // A plain sieve of Eratosthenes to check against
+    private static boolean[] composites(int n) {
+        boolean[] composite = new boolean[n + 1];
+        composite[0] = composite[1] = true;
+        for (int i = 2; (long) i * i <= n; i++) {
+            if (composite[i]) continue;
+            for (int j = i * i; j <= n; j += i) {
+                composite[j] = true;
+            }
+        }
+        return composite;
+    }
+
+    @Test
+    public void testRanges() throws Exception {
+        boolean[] composite = composites(LIMIT);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < TRIES; i++) {
+            int from = i < 5 ? i : random.nextInt(LIMIT);
+            int to = from + random.nextInt(LIMIT - from + 1);
+            long[] primes = PrimeSieve.primes(from, to).toArray();
+            int count = 0;
+            for (int n = from; n <= to; n++) {
+                if (!composite[n]) {
+                    assertEquals(primes[count++], n);
+                }
+            }
+            assertEquals(primes.length, count);
+        }
+    }
+
+    @Test
+    public void testPrimePi() throws Exception {
+        assertEquals(PrimeSieve.primePi(1), 0);
+        assertEquals(PrimeSieve.primePi(2), 1);
+        assertEquals(PrimeSieve.primePi(100), 25);
+        assertEquals(PrimeSieve.primePi(1_000_000), 78_498);
+        assertEquals(PrimeSieve.primePi(100_000_000), 5_761_455);
+    }
+
+    @Test
+    public void testLargeRange() throws Exception {
+        long from = 1_000_000_000_000L;
+        long to = from + 10_000;
+        long[] primes = PrimeSieve.primes(from, to).toArray();
+        int count = 0;
+        for (long n = from; n <= to; n++) {
+            if (BigInteger.valueOf(n).isProbablePrime(50)) {
+                assertEquals(primes[count++], n);
+            }
+        }
+        assertEquals(primes.length, count);
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * The MIT License (MIT)
+ * ---------------------
+ *
+ * Copyright (c) 2015-2016 Cristatus Solutions
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+ * NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR
+ * THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package test.cristatus.core;
+
+import cristatus.core.Rational;
+import cristatus.core.RationalAccumulator;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Random;
+
+import static org.testng.Assert.assertEquals;
+import static test.cristatus.core.TestUtils.getOneIfZero;
+import static test.cristatus.core.TestUtils.getRandomBigDecimal;
+
+/**
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class RationalAccumulatorTest {
+
+    private static final int TRIES = 200;
+    private static final MathContext CONTEXT = MathContext.DECIMAL128;
+
+    @Test
+    public void testAgainstRational() throws Exception {
+        Random random = new Random();
+        Rational expected = Rational.ZERO;
+        RationalAccumulator sum = new RationalAccumulator();
+        for (int i = 0; i < TRIES; i++) {
+            Rational term = Rational.valueOf(random.nextInt(),
+                    getOneIfZero(random.nextInt()));
+            long factor = getOneIfZero(random.nextInt(100) - 50);
+            switch (i % 4) {
+                case 0:
+                    expected = expected.add(term);
+                    sum.add(term);
+                    break;
+                case 1:
+                    expected = expected.subtract(term);
+                    sum.subtract(term);
+                    break;
+                case 2:
+                    expected = expected.multiply(Rational.valueOf(factor));
+                    sum.multiply(factor);
+                    break;
+                default:
+                    expected = expected.divide(Rational.valueOf(factor));
+                    sum.divide(factor);
+            }
+            assertEquals(sum.toRational(), expected);
+            assertEquals(sum.signum(), expected.signum());
+        }
+    }
+
+    @Test
+    public void testDropTo() throws Exception {
+        Random random = new Random();
+        for (int i = 0; i < TRIES; i++) {
+            BigDecimal decimal1 = getRandomBigDecimal(random, CONTEXT);
+            BigDecimal decimal2 = getRandomBigDecimal(random, CONTEXT);
+            Rational rational = Rational.valueOf(decimal1, decimal2);
+            RationalAccumulator accumulator = new RationalAccumulator(rational);
+            assertEquals(
+                    accumulator.dropTo(CONTEXT).toRational().toBigDecimal(CONTEXT),
+                    rational.dropTo(CONTEXT).toBigDecimal(CONTEXT)
+            );
+        }
+    }
+}
@@ -27,6 +27,7 @@ package test.cristatus.core;
 
 
 import cristatus.core.Rational;
+import cristatus.core.utils.BinaryContext;
 import org.testng.annotations.Test;
 
 import java.math.BigDecimal;
@@ -69,6 +70,7 @@ public class RationalTest {
     private static final int POWER_FACTOR = 1000;
     private static final int ABSOLUTE_FACTOR = 10;
     private static final int INTEGER_POWER_FACTOR = 1000;
+    private static final int SMALL_VALUE_FACTOR = 10;
 
     @Test(timeOut = TRIES * SINGLE_ARGUMENT_FACTOR)
     public void testValueOfSingleArgument() throws Exception {
@@ -366,6 +368,24 @@ public class RationalTest {
         }
     }
 
+    @Test
+    public void testExactPow() throws Exception {
+        Random random = new Random();
+        for (int i = 0; i < TRIES; i++) {
+            int root = 2 + random.nextInt(POW_BOUND - 2);
+            Rational base = Rational.valueOf(
+                    getOneIfZero(random.nextInt()),
+                    getOneIfZero(random.nextInt(Integer.MAX_VALUE))
+            ).abs();
+            Rational power = base.pow(root);
+            assertEquals(power.pow(Rational.valueOf(1, root), CONTEXT), base);
+            assertEquals(
+                    power.pow(Rational.valueOf(-1, root), CONTEXT),
+                    base.reciprocate()
+            );
+        }
+    }
+
     @Test(timeOut = TRIES * ABSOLUTE_FACTOR)
     public void testAbsolute() throws Exception {
         Random random = new Random();
@@ -407,4 +427,82 @@ public class RationalTest {
             );
         }
     }
-}
\ No newline at end of file
+
+    @Test(timeOut = TRIES * SMALL_VALUE_FACTOR)
+    public void testSmallValuesAgainstBigIntegers() throws Exception {
+        Random random = new Random();
+        for (int i = 0; i < TRIES; i++) {
+            // Spread the sizes so that results cross the long boundary
+            int bits = 1 + random.nextInt(Long.SIZE - 1);
+            long n1 = random.nextLong() >> (Long.SIZE - bits);
+            long d1 = getOneIfZero(random.nextLong() >> (Long.SIZE - bits));
+            long n2 = random.nextLong() >> (Long.SIZE - bits);
+            long d2 = getOneIfZero(random.nextLong() >> (Long.SIZE - bits));
+            Rational small1 = Rational.valueOf(n1, d1);
+            Rational small2 = Rational.valueOf(n2, d2);
+            Rational big1 = Rational.valueOf(
+                    BigInteger.valueOf(n1), BigInteger.valueOf(d1));
+            Rational big2 = Rational.valueOf(
+                    BigInteger.valueOf(n2), BigInteger.valueOf(d2));
+            assertEquals(small1, big1);
+            assertEquals(small1.hashCode(), big1.hashCode());
+            assertEquals(small1.add(small2), big1.add(big2));
+            assertEquals(small1.subtract(small2), big1.subtract(big2));
+            assertEquals(small1.multiply(small2), big1.multiply(big2));
+            assertEquals(small1.compareTo(small2), big1.compareTo(big2));
+            BigInteger n = BigInteger.valueOf(n1).multiply(BigInteger.valueOf(d2))
+                    .add(BigInteger.valueOf(n2).multiply(BigInteger.valueOf(d1)));
+            BigInteger d = BigInteger.valueOf(d1).multiply(BigInteger.valueOf(d2));
+            assertEquals(small1.add(small2).toBigDecimal(CONTEXT),
+                    new BigDecimal(n).divide(new BigDecimal(d), CONTEXT)
+                            .stripTrailingZeros());
+            if (n2 != 0) {
+                assertEquals(small1.divide(small2), big1.divide(big2));
+            }
+        }
+        // Long.MIN_VALUE cannot be negated within a long
+        Rational min = Rational.valueOf(Long.MIN_VALUE);
+        assertEquals(min.negate().getNumerator(),
+                BigInteger.valueOf(Long.MIN_VALUE).negate());
+        assertEquals(Rational.valueOf(1, Long.MIN_VALUE).signum(), -1);
+    }
+
+    @Test
+    public void testCompactBoundary() throws Exception {
+        // Values on either side of the long form's limit, built both ways
+        long[] edges = {1L << 61, 1L << 62};
+        for (long edge : edges) {
+            for (long offset = -2; offset <= 2; offset++) {
+                for (long value : new long[]{edge + offset, -(edge + offset)}) {
+                    Rational small = Rational.valueOf(value, 3);
+                    Rational big = Rational.valueOf(
+                            BigInteger.valueOf(value), BigInteger.valueOf(3));
+                    assertEquals(small, big);
+                    assertEquals(small.hashCode(), big.hashCode());
+                    assertEquals(small.compareTo(big), 0);
+                    assertEquals(Rational.valueOf(value),
+                            Rational.valueOf(BigInteger.valueOf(value)));
+                    assertEquals(Rational.valueOf(3, value),
+                            Rational.valueOf(BigInteger.valueOf(3),
+                                    BigInteger.valueOf(value)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDropToBinaryContext() throws Exception {
+        Random random = new Random();
+        BinaryContext binary = BinaryContext.from(CONTEXT);
+        for (int i = 0; i < TRIES; i++) {
+            BigDecimal decimal1 = getRandomBigDecimal(random, CONTEXT);
+            BigDecimal decimal2 = getRandomBigDecimal(random, CONTEXT);
+            Rational rational = Rational.valueOf(decimal1, decimal2);
+            Rational dropped = rational.dropTo(binary.expand(Long.SIZE));
+            assertEquals(
+                    decimal1.divide(decimal2, CONTEXT).stripTrailingZeros(),
+                    dropped.toBigDecimal(CONTEXT)
+            );
+        }
+    }
+}
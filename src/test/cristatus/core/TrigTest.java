@@ -27,12 +27,17 @@ package test.cristatus.core;
 
 import cristatus.core.Rational;
 import cristatus.core.series.Trig;
+import cristatus.core.utils.AtanGenerator;
+import cristatus.core.utils.SeriesResult;
+import cristatus.core.utils.TrigGenerator;
 import org.testng.annotations.Test;
 
+import java.math.BigDecimal;
 import java.math.MathContext;
 import java.util.Random;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 /**
  * @author Subhomoy Haldar
@@ -42,6 +47,8 @@ public class TrigTest {
 
     private static final int TRIES = 1_000;
     private static final MathContext CONTEXT = MathContext.DECIMAL64;
+    private static final int LARGE_TRIES = 20;
+    private static final MathContext LARGE_CONTEXT = new MathContext(500);
 
     private static final double DBL_TOLERANCE = 1e-15;
 
@@ -63,4 +70,87 @@ public class TrigTest {
             );
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testTermCounts() throws Exception {
+        MathContext context = new MathContext(100);
+        // The halved angles are powers of 2, which the bound takes to be
+        // twice as large: the terms vanish before it is reached
+        Rational half = Rational.valueOf(1, 2);
+        SeriesResult<Rational[]> sinCos = TrigGenerator.evaluateSinCos(half, context);
+        assertTrue(sinCos.getTerms() > 0);
+        assertTrue(sinCos.getTerms() < sinCos.getBound());
+        assertEquals(sinCos.getValue()[0], Trig.sinSeries(half, context));
+
+        Random random = new Random();
+        for (int i = 0; i < LARGE_TRIES; i++) {
+            Rational x = Rational.valueOf(random.nextDouble() * 4 - 2);
+            SeriesResult<Rational[]> both = TrigGenerator.evaluateSinCos(x, context);
+            assertTrue(both.getTerms() <= both.getBound());
+            SeriesResult<Rational> atan = AtanGenerator.evaluateAtan(x, context);
+            assertTrue(atan.getTerms() <= atan.getBound());
+            assertEquals(atan.getValue(), Trig.atanSeries(x, context));
+        }
+    }
+
+    @Test
+    public void testLargeAngle() throws Exception {
+        Random random = new Random();
+        for (int i = 0; i < LARGE_TRIES; i++) {
+            Rational angle = Rational.valueOf(
+                    random.nextInt() / 1000.0 + random.nextDouble()
+            );
+            Rational[] sinCos = Trig.sinCos(angle, LARGE_CONTEXT);
+            Rational sin = sinCos[0];
+            Rational cos = sinCos[1];
+            assertEquals(sin.doubleValue(), Math.sin(angle.doubleValue()), 1e-6);
+            assertEquals(
+                    sin.pow(2).add(cos.pow(2)).toBigDecimal(LARGE_CONTEXT),
+                    BigDecimal.ONE
+            );
+            // sin(2x) = 2 sin(x) cos(x)
+            Rational sin2 = Trig.sinSeries(angle.multiply(Rational.TWO), LARGE_CONTEXT);
+            assertEquals(
+                    sin2.toBigDecimal(LARGE_CONTEXT),
+                    sin.multiply(cos).multiply(Rational.TWO)
+                            .toBigDecimal(LARGE_CONTEXT)
+            );
+        }
+    }
+
+    @Test
+    public void testInverse() throws Exception {
+        Random random = new Random();
+        for (int i = 0; i < LARGE_TRIES; i++) {
+            double d = random.nextGaussian() * Math.pow(10, random.nextInt(10) - 5);
+            Rational x = Rational.valueOf(d);
+            Rational atan = Trig.atanSeries(x, LARGE_CONTEXT);
+            assertEquals(atan.doubleValue(), Math.atan(d), DBL_TOLERANCE);
+            Rational tan = Trig.sinSeries(atan, LARGE_CONTEXT)
+                    .divide(Trig.cosSeries(atan, LARGE_CONTEXT));
+            assertEquals(
+                    tan.toBigDecimal(LARGE_CONTEXT),
+                    x.toBigDecimal(LARGE_CONTEXT)
+            );
+
+            double s = random.nextDouble() * 2 - 1;
+            Rational sin = Rational.valueOf(s);
+            Rational asin = Trig.asin(sin, LARGE_CONTEXT);
+            Rational acos = Trig.acos(sin, LARGE_CONTEXT);
+            assertEquals(asin.doubleValue(), Math.asin(s), DBL_TOLERANCE);
+            assertEquals(acos.doubleValue(), Math.acos(s), DBL_TOLERANCE);
+            assertEquals(
+                    Trig.sinSeries(asin, LARGE_CONTEXT).toBigDecimal(LARGE_CONTEXT),
+                    sin.toBigDecimal(LARGE_CONTEXT)
+            );
+            assertEquals(
+                    Trig.cosSeries(acos, LARGE_CONTEXT).toBigDecimal(LARGE_CONTEXT),
+                    sin.toBigDecimal(LARGE_CONTEXT)
+            );
+
+            double y = random.nextGaussian();
+            Rational atan2 = Trig.atan2(Rational.valueOf(y), x, CONTEXT);
+            assertEquals(atan2.doubleValue(), Math.atan2(y, d), DBL_TOLERANCE * 4);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * The MIT License (MIT)
+ * ---------------------
+ *
+ * Copyright (c) 2015-2016 Cristatus Solutions
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+ * OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+ * NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR
+ * THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package test.cristatus.core;
+
+import cristatus.core.Rational;
+import cristatus.core.UnreducedRational;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static test.cristatus.core.TestUtils.getOneIfZero;
+
+/**
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class UnreducedRationalTest {
+
+    private static final int TRIES = 200;
+    private static final int SMALL_THRESHOLD = 256;
+
+    @Test
+    public void testChainAgainstRational() throws Exception {
+        Random random = new Random();
+        Rational expected = Rational.ONE;
+        UnreducedRational lazy = UnreducedRational.valueOf(Rational.ONE);
+        UnreducedRational bounded
+                = UnreducedRational.valueOf(Rational.ONE, SMALL_THRESHOLD);
+        for (int i = 0; i < TRIES; i++) {
+            Rational term = Rational.valueOf(random.nextInt(),
+                    getOneIfZero(random.nextInt()));
+            switch (i % 4) {
+                case 0:
+                    expected = expected.add(term);
+                    lazy = lazy.add(term);
+                    bounded = bounded.add(term);
+                    break;
+                case 1:
+                    expected = expected.multiply(term);
+                    lazy = lazy.multiply(term);
+                    bounded = bounded.multiply(term);
+                    break;
+                case 2:
+                    expected = expected.subtract(term);
+                    lazy = lazy.subtract(term);
+                    bounded = bounded.subtract(term);
+                    break;
+                default:
+                    expected = expected.divide(term);
+                    lazy = lazy.divide(term);
+                    bounded = bounded.divide(term);
+            }
+        }
+        assertEquals(lazy.toRational(), expected);
+        assertEquals(bounded.toRational(), expected);
+        assertEquals(lazy, bounded);
+        assertEquals(lazy.hashCode(), expected.hashCode());
+        assertEquals(lazy.toString(), expected.toString());
+        assertEquals(lazy.compareTo(bounded), 0);
+        assertTrue(lazy.getAvoidedGcds() > bounded.getAvoidedGcds());
+        assertTrue(bounded.getAvoidedGcds() > 0);
+    }
+}